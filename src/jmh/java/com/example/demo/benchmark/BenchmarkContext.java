@@ -0,0 +1,102 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.cache.PrincipalCache;
+import com.example.demo.cache.ProfileVersionCache;
+import com.example.demo.cache.RevokedTokenDenylist;
+import com.example.demo.cache.VerifiedTokenCache;
+import com.example.demo.config.JwtAuthenticationFilter;
+import com.example.demo.repository.RefreshTokenRepo;
+import com.example.demo.repository.RevokedTokenRepo;
+import com.example.demo.repository.UserRepo;
+import com.example.demo.service.LoginAttemptService;
+import com.example.demo.service.LoginAttemptStore;
+import com.example.demo.service.RefreshTokenService;
+import com.example.demo.service.VerificationCodeStore;
+import com.example.demo.service.impl.AuthServiceImpl;
+import com.example.demo.util.AuthMetrics;
+import com.example.demo.util.AuthRateLimits;
+import com.example.demo.util.JwtKeyRing;
+import com.example.demo.util.JwtUtil;
+import com.example.demo.util.MailSenderUtil;
+import com.example.demo.util.PasswordHasher;
+import com.example.demo.util.ResetCodeUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Starts a Spring context holding only the beans one harness measures, with repositories and mail mocked, so they
+ * are wired and initialised exactly as in the application. Settings are passed as properties, like
+ * {@link SignInEndToEndBenchmark} does for the full application.
+ * <p>
+ * The bean classes here and in the harnesses are deliberately not {@code @Configuration}: this package sits under the
+ * application's component scan, and the harnesses that start the whole application must not pick them up.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static AnnotationConfigApplicationContext start(Class<?> configuration, String... properties) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        // durations such as PT1M in @Value defaults are converted the way Spring Boot does it
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        TestPropertyValues.of(properties).applyTo(context);
+        context.register(configuration);
+        context.refresh();
+        return context;
+    }
+
+    @Import({JwtUtil.class, JwtKeyRing.class, VerifiedTokenCache.class, AuthMetrics.class})
+    static class Tokens {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        UserRepo userRepo() {
+            return mock(UserRepo.class);
+        }
+    }
+
+    @Import({Tokens.class, JwtAuthenticationFilter.class, PrincipalCache.class, ProfileVersionCache.class, RevokedTokenDenylist.class})
+    static class Filter {
+        // stub-only, so preloading the denylist does not record every save
+        @Bean
+        RevokedTokenRepo revokedTokenRepo() {
+            return mock(RevokedTokenRepo.class, withSettings().stubOnly());
+        }
+    }
+
+    /**
+     * Sign-up and sign-in; the harness supplies the {@link org.springframework.security.crypto.password.PasswordEncoder}.
+     */
+    @Import({Tokens.class, AuthServiceImpl.class, PasswordHasher.class, AuthRateLimits.class, LoginAttemptService.class, RefreshTokenService.class})
+    static class Auth {
+        // registered as finished singletons, so Spring does not inject the @Autowired fields the mocks inherit
+        @Bean
+        static BeanFactoryPostProcessor authMocks() {
+            return beanFactory -> {
+                beanFactory.registerSingleton("refreshTokenRepo", mock(RefreshTokenRepo.class, withSettings().stubOnly()));
+                beanFactory.registerSingleton("loginAttemptStore", mock(LoginAttemptStore.class));
+                beanFactory.registerSingleton("revokedTokenDenylist", mock(RevokedTokenDenylist.class));
+                beanFactory.registerSingleton("verificationCodeStore", mock(VerificationCodeStore.class));
+                beanFactory.registerSingleton("mailSenderUtil", mock(MailSenderUtil.class));
+                beanFactory.registerSingleton("resetCodeUtil", mock(ResetCodeUtil.class));
+                beanFactory.registerSingleton("transactionTemplate", mock(TransactionTemplate.class));
+                beanFactory.registerSingleton("applicationTaskExecutor", mock(AsyncTaskExecutor.class));
+            };
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.forms.SignUpForm;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepo;
+import com.example.demo.service.AuthService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cost of a sign-up whose email is already taken: the old hash-then-check order against the current service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DuplicateSignUpBenchmark {
+    private AnnotationConfigApplicationContext context;
+    private PasswordEncoder passwordEncoder;
+    private UserRepo userRepo;
+    private AuthService authService;
+    private SignUpForm form;
+
+    @Import(BenchmarkContext.Auth.class)
+    static class Beans {
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(Beans.class, "auth.hashing.queue-capacity=1024");
+        passwordEncoder = context.getBean(PasswordEncoder.class);
+        authService = context.getBean(AuthService.class);
+
+        User existing = User.builder().email("taken@bench.com").build();
+        userRepo = context.getBean(UserRepo.class);
+        when(userRepo.existsByEmail(anyString())).thenReturn(true);
+        when(userRepo.findByEmail(anyString())).thenReturn(Optional.of(existing));
+
+        form = SignUpForm.builder()
+                .fullName("bench user")
+                .email("taken@bench.com")
+                .password("bench-password")
+                .phoneNumber("1234567890")
+                .address("bench address")
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /** The order sign-up used before: hash the password, then discover the conflict. */
+    @Benchmark
+    public Object hashThenCheck() {
+        String encodedPassword = passwordEncoder.encode(form.getPassword());
+        Optional<User> oldUser = userRepo.findByEmail(form.getEmail());
+        return oldUser.isPresent() ? oldUser : encodedPassword;
+    }
+
+    @Benchmark
+    public ResponseEntity<?> checkThenHash() {
+        return authService.signUp(form);
+    }
+}
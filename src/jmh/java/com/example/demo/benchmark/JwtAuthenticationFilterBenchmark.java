@@ -0,0 +1,86 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.cache.RevokedTokenDenylist;
+import com.example.demo.config.JwtAuthenticationFilter;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepo;
+import com.example.demo.util.JwtUtil;
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * One authenticated request through the filter against a stubbed {@link UserRepo}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+    @Param({"true", "false"})
+    public boolean tokenCache;
+
+    private AnnotationConfigApplicationContext context;
+    private JwtAuthenticationFilter filter;
+    private Cookie cookie;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(BenchmarkContext.Filter.class, "auth.token-cache.enabled=" + tokenCache);
+
+        User user = User.builder().email("filter@bench.com").build();
+        when(context.getBean(UserRepo.class).findByEmail(anyString())).thenReturn(Optional.of(user));
+
+        // a realistically loaded Bloom filter for the revocation check to probe
+        RevokedTokenDenylist denylist = context.getBean(RevokedTokenDenylist.class);
+        Instant expiresAt = Instant.now().plus(Duration.ofDays(1));
+        for (int i = 0; i < 50_000; i++) {
+            denylist.revoke(UUID.randomUUID().toString(), expiresAt);
+        }
+
+        filter = context.getBean(JwtAuthenticationFilter.class);
+        cookie = new Cookie("jwtToken", context.getBean(JwtUtil.class).generateToken(user.getEmail()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse authenticatedRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/auth/profile");
+        request.setCookies(cookie);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        return response;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.util.JwtUtil;
+import com.example.demo.util.TokenVerification;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of minting and of verifying a token per signing algorithm, with the verified-token cache off so every
+ * verification runs the signature check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtSigningAlgorithmBenchmark {
+    private static final String KEYSTORE_PASSWORD = "changeit";
+
+    @Param({"HS256", "RS256", "ES256"})
+    public SignatureAlgorithm algorithm;
+
+    private AnnotationConfigApplicationContext context;
+    private Path keystore;
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        keystore = Files.createTempDirectory("jwt-bench").resolve("jwt.p12");
+        if (algorithm != SignatureAlgorithm.HS256) {
+            generateKey(keystore, algorithm);
+        }
+
+        context = BenchmarkContext.start(BenchmarkContext.Tokens.class,
+                "auth.token-cache.enabled=false",
+                "auth.jwt.algorithm=" + algorithm,
+                "auth.jwt.keystore.path=" + keystore,
+                "auth.jwt.keystore.password=" + KEYSTORE_PASSWORD,
+                "auth.jwt.keystore.signing-alias=bench");
+        jwtUtil = context.getBean(JwtUtil.class);
+        token = jwtUtil.generateToken("alg@bench.com");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(keystore);
+        Files.delete(keystore.getParent());
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtUtil.generateToken("alg@bench.com");
+    }
+
+    @Benchmark
+    public TokenVerification verify() {
+        return jwtUtil.check(token);
+    }
+
+    // keytool is the documented way to produce the keystore, so the harness uses it too
+    private static void generateKey(Path keystore, SignatureAlgorithm algorithm) throws IOException, InterruptedException {
+        String[] keyOptions = algorithm == SignatureAlgorithm.RS256
+                ? new String[]{"-keyalg", "RSA", "-keysize", "2048", "-sigalg", "SHA256withRSA"}
+                : new String[]{"-keyalg", "EC", "-groupname", "secp256r1", "-sigalg", "SHA256withECDSA"};
+        List<String> command = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                "-genkeypair", "-alias", "bench", "-dname", "CN=bench", "-validity", "1", "-storetype", "PKCS12",
+                "-keystore", keystore.toString(), "-storepass", KEYSTORE_PASSWORD));
+        command.addAll(List.of(keyOptions));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes());
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("keytool failed: " + output);
+        }
+    }
+}
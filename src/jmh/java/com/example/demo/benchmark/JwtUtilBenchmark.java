@@ -0,0 +1,53 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.util.JwtUtil;
+import com.example.demo.util.TokenVerification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+    private AnnotationConfigApplicationContext context;
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(BenchmarkContext.Tokens.class);
+        jwtUtil = context.getBean(JwtUtil.class);
+        token = jwtUtil.generateToken("jwt@bench.com");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("jwt@bench.com");
+    }
+
+    /** What the filter calls; a repeated token is answered by the verified-token cache. */
+    @Benchmark
+    public TokenVerification checkCached() {
+        return jwtUtil.check(token);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.config.SecurityConfig;
+import com.example.demo.forms.LoginForm;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepo;
+import com.example.demo.service.AuthService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sign-in latency distribution (p50/p99 in the SampleTime output) for each password hashing profile,
+ * so {@code auth.password.encoder} and {@code auth.password.bcrypt-strength} can be tuned per machine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class LoginHashingBenchmark {
+    // encoder id, optionally followed by the BCrypt strength
+    @Param({"bcrypt:8", "bcrypt:10", "bcrypt:12", "pbkdf2", "argon2"})
+    public String profile;
+
+    private AnnotationConfigApplicationContext context;
+    private AuthService authService;
+    private LoginForm form;
+
+    @Import(BenchmarkContext.Auth.class)
+    static class Beans {
+        @Bean
+        PasswordEncoder passwordEncoder(@Value("${auth.password.encoder}") String encodingId,
+                                        @Value("${auth.password.bcrypt-strength}") int bcryptStrength) {
+            return new SecurityConfig().passwordEncoder(encodingId, bcryptStrength);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        String[] parts = profile.split(":");
+        // limits, lockout and the token cache are off, so only the hashing and token issuing are measured
+        context = BenchmarkContext.start(Beans.class,
+                "auth.password.encoder=" + parts[0],
+                "auth.password.bcrypt-strength=" + (parts.length > 1 ? parts[1] : "10"),
+                "auth.hashing.queue-capacity=1024",
+                "auth.rate-limit.enabled=false",
+                "auth.lockout.enabled=false",
+                "auth.token-cache.enabled=false");
+        authService = context.getBean(AuthService.class);
+
+        form = new LoginForm("login@bench.com", "bench-password");
+        User user = User.builder()
+                .email(form.getEmail())
+                .password(context.getBean(PasswordEncoder.class).encode(form.getPassword()))
+                .build();
+        when(context.getBean(UserRepo.class).findByEmail(anyString())).thenReturn(Optional.of(user));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> signIn() {
+        return authService.loginUser(form, new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.util.ResetCodeUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResetCodeBenchmark {
+    private final ResetCodeUtil resetCodeUtil = new ResetCodeUtil();
+
+    @Benchmark
+    public String generateResetCode() {
+        return resetCodeUtil.generateResetCode();
+    }
+
+    /** The SecureRandom is shared, so this shows contention when many requests ask for codes at once. */
+    @Benchmark
+    @Threads(4)
+    public String generateResetCodeContended() {
+        return resetCodeUtil.generateResetCode();
+    }
+}
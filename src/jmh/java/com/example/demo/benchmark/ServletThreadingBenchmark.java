@@ -0,0 +1,102 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.forms.LoginForm;
+import com.example.demo.forms.SignUpForm;
+import com.example.demo.util.TestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test over real HTTP against Tomcat, once with the default platform-thread pool and once with the
+ * {@code virtual} profile. SampleTime reports the p99 next to the mean; run with {@code -bm thrpt} for throughput.
+ * {@code profile} is I/O-bound (JWT check and a database read), {@code signIn} is bound by BCrypt on the hashing pool.
+ * Start the JVM with {@code -Djdk.tracePinnedThreads=short} to have any carrier pinning printed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(256)
+public class ServletThreadingBenchmark {
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest signIn;
+    private HttpRequest profile;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("virtual".equals(threads) ? new String[]{"virtual"} : new String[0])
+                // the harness is one client hammering one account; the abuse limits would answer most calls with 429
+                .properties("server.port=0", "spring.mail.host=localhost",
+                        "auth.rate-limit.enabled=false", "auth.lockout.enabled=false")
+                .run();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        String baseUrl = "http://localhost:" + port + "/api/auth";
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        SignUpForm signUpForm = SignUpForm.builder()
+                .fullName("bench user")
+                .email("load@bench.com")
+                .password("bench-password")
+                .phoneNumber("1234567890")
+                .address("bench address")
+                .build();
+        client.send(post(baseUrl + "/sign-up", TestUtils.convertObjectToJsonBytes(signUpForm)),
+                HttpResponse.BodyHandlers.discarding());
+
+        signIn = post(baseUrl + "/sign-in", TestUtils.convertObjectToJsonBytes(new LoginForm("load@bench.com", "bench-password")));
+        // the cookie is marked Secure, so it is replayed by hand over plain HTTP
+        String cookie = client.send(signIn, HttpResponse.BodyHandlers.discarding())
+                .headers().firstValue("Set-Cookie").orElseThrow().split(";", 2)[0];
+        profile = HttpRequest.newBuilder(URI.create(baseUrl + "/profile")).header("Cookie", cookie).GET().build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int signIn() throws Exception {
+        return client.send(signIn, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int profile() throws Exception {
+        return client.send(profile, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static HttpRequest post(String url, byte[] body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.forms.LoginForm;
+import com.example.demo.forms.SignUpForm;
+import com.example.demo.util.TestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+
+/**
+ * Sign-in through the whole stack (security filters, validation, service, H2) via MockMvc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class SignInEndToEndBenchmark {
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private byte[] loginBody;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                // every call signs in the same account, which the rate limiter would otherwise stop after a few
+                .properties("server.port=0", "spring.mail.host=localhost", "auth.rate-limit.enabled=false")
+                .run();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .build();
+
+        SignUpForm signUpForm = SignUpForm.builder()
+                .fullName("bench user")
+                .email("e2e@bench.com")
+                .password("bench-password")
+                .phoneNumber("1234567890")
+                .address("bench address")
+                .build();
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/sign-up")
+                .contentType("application/json")
+                .content(TestUtils.convertObjectToJsonBytes(signUpForm)));
+        loginBody = TestUtils.convertObjectToJsonBytes(new LoginForm("e2e@bench.com", "bench-password"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult signIn() throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/sign-in")
+                        .contentType("application/json")
+                        .content(loginBody))
+                .andReturn();
+    }
+}
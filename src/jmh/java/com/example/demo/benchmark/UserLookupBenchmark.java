@@ -0,0 +1,101 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepo;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The read-only user lookups against the managed entity query they replaced. Run with {@code -prof gc} to compare
+ * allocation per lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserLookupBenchmark {
+    private static final String EMAIL = "lookup@bench.com";
+
+    @Param({"false", "true"})
+    public boolean secondLevelCache;
+
+    private ConfigurableApplicationContext context;
+    private UserRepo userRepo;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .properties("server.port=0", "spring.mail.host=localhost", "auth.user-cache.enabled=" + secondLevelCache)
+                .run();
+        userRepo = context.getBean(UserRepo.class);
+        entityManager = context.getBean(EntityManager.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        userRepo.save(User.builder()
+                .fullName("lookup user")
+                .email(EMAIL)
+                .password("encoded-password")
+                .phoneNumber("1234567890")
+                .address("bench address")
+                .build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * The derived {@code findByEmail} UserRepo used to declare: a query in the repository's read-only transaction that
+     * returns a managed entity.
+     */
+    @Benchmark
+    public Optional<User> entityQuery() {
+        return readOnlyTransaction.execute(status -> entityManager
+                .createQuery("select u from User u where u.email = :email", User.class)
+                .setParameter("email", EMAIL)
+                .getResultList()
+                .stream()
+                .findFirst());
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail() {
+        return userRepo.findByEmail(EMAIL);
+    }
+
+    /** How callers that only needed to know the user exists used to ask. */
+    @Benchmark
+    public boolean existsViaEntity() {
+        return userRepo.findByEmail(EMAIL).isPresent();
+    }
+
+    @Benchmark
+    public boolean existsByEmail() {
+        return userRepo.existsByEmail(EMAIL);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepo;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Concurrent user lookups by email against H2, with and without the second-level cache. SampleTime reports the p99;
+ * the {@code lookups} and {@code statements} counters give the statements issued per lookup, from Hibernate's
+ * statistics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(8)
+@Fork(1)
+public class UserStoreLoadBenchmark {
+    private static final int USERS = 1000;
+
+    @Param({"false", "true"})
+    public boolean secondLevelCache;
+
+    private ConfigurableApplicationContext context;
+    private UserRepo userRepo;
+    private Statistics statistics;
+    private final AtomicBoolean statementsCounted = new AtomicBoolean();
+    private String[] emails;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long lookups;
+        public long statements;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            lookups = 0;
+            statements = 0;
+        }
+
+        // Hibernate counts statements for all threads together, so the first thread done with the iteration takes the total
+        @TearDown(Level.Iteration)
+        public void collect(UserStoreLoadBenchmark benchmark) {
+            if (benchmark.statementsCounted.compareAndSet(false, true)) {
+                statements = benchmark.statistics.getPrepareStatementCount();
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .properties("server.port=0", "spring.mail.host=localhost",
+                        "auth.user-cache.enabled=" + secondLevelCache,
+                        "spring.jpa.properties.hibernate.generate_statistics=true")
+                .run();
+        userRepo = context.getBean(UserRepo.class);
+
+        List<User> users = new ArrayList<>();
+        emails = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            emails[i] = "load" + i + "@bench.com";
+            users.add(User.builder()
+                    .fullName("load user")
+                    .email(emails[i])
+                    .password("encoded-password")
+                    .phoneNumber("1234567890")
+                    .address("bench address")
+                    .build());
+        }
+        userRepo.saveAll(users);
+
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Setup(Level.Iteration)
+    public void clearStatistics() {
+        statistics.clear();
+        statementsCounted.set(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail(Counters counters) {
+        counters.lookups++;
+        return userRepo.findByEmail(emails[ThreadLocalRandom.current().nextInt(USERS)]);
+    }
+}
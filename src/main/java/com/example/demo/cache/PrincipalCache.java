@@ -0,0 +1,96 @@
+package com.example.demo.cache;
+
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, time-limited cache of authenticated principals keyed by the token subject (email).
+ * Unknown emails are not cached, so a user signing up becomes visible immediately. Changes committed on this node evict
+ * the entry at once; a change made on another node, such as a password reset, is seen here within
+ * {@code auth.principal-cache.ttl} plus {@code auth.user-cache.ttl} (a minute each), since a reload may still be served
+ * from this node's second-level cache.
+ * <p>
+ * A load is not atomic with its insert, so an eviction can land while a request is still holding the row it read
+ * before the change committed. Each eviction bumps a generation counter for its key's stripe, and a load whose stripe
+ * moved on meanwhile does not keep its result in the cache.
+ */
+@Component
+public class PrincipalCache {
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.principal-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${auth.principal-cache.ttl:PT1M}")
+    private Duration ttl;
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private Cache<String, User> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+
+    public Optional<User> get(String email) {
+        User cached = cache.getIfPresent(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        // loaded outside the cache: a loading get() runs the query inside a synchronized map bin, which pins
+        // a virtual thread's carrier for the whole JDBC round trip
+        int stripe = stripe(email);
+        long generation = generations.get(stripe);
+        Optional<User> user = userRepo.findByEmail(email);
+        user.ifPresent(found -> {
+            cache.put(email, found);
+            // an eviction that ran after the read may have missed this entry; take it back out if so
+            if (generations.get(stripe) != generation) {
+                cache.asMap().remove(email, found);
+            }
+        });
+        return user;
+    }
+
+    public void evict(String email) {
+        if (email != null) {
+            // bumped before invalidating, so a load racing with this either sees the new generation or is invalidated
+            generations.incrementAndGet(stripe(email));
+            cache.invalidate(email);
+        }
+    }
+
+    private static int stripe(String email) {
+        return Math.floorMod(email.hashCode(), GENERATION_STRIPES);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.cache;
+
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Current {@link com.example.demo.model.User#getProfileVersion() profile version} per email, so a profile snapshot
+ * carried in a token can be checked without loading the user. This node's updates are applied at once by
+ * {@link UserCacheInvalidator}; updates made on other nodes are picked up when the entry expires.
+ */
+@Component
+public class ProfileVersionCache {
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.profile-claims.version-cache.max-size:50000}")
+    private long maxSize;
+
+    @Value("${auth.profile-claims.version-cache.ttl:PT1M}")
+    private Duration ttl;
+
+    private Cache<String, Long> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "profile-versions");
+    }
+
+    public boolean isCurrent(String email, long version) {
+        Long current = cache.getIfPresent(email);
+        if (current == null) {
+            // queried outside the cache for the same reason as in PrincipalCache
+            Optional<Long> stored = userRepo.findProfileVersionByEmail(User.normalizeEmail(email));
+            if (stored.isEmpty()) {
+                return false;
+            }
+            current = stored.get();
+            cache.put(email, current);
+        }
+        return current == version;
+    }
+
+    public void update(String email, long version) {
+        if (email != null) {
+            cache.put(email, version);
+        }
+    }
+
+    public void evict(String email) {
+        if (email != null) {
+            cache.invalidate(email);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.demo.cache;
+
+import com.example.demo.model.RevokedToken;
+import com.example.demo.repository.RevokedTokenRepo;
+import com.example.demo.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token ids (jti) revoked before their expiry, e.g. by signing out. Every authenticated request asks
+ * {@link #isRevoked}, which is answered by a Bloom filter alone unless the id might be listed, so the common case
+ * costs a few bit probes and no allocation. Possible hits are confirmed against the exact set, which remembers each id
+ * until its token expires.
+ * <p>
+ * Revocations are also written to the {@code revoked_token} table. Each node reads new rows every
+ * {@code auth.revocation.sync-interval}, so a sign-out on one node applies everywhere within that interval and
+ * survives a restart.
+ */
+@Component
+public class RevokedTokenDenylist {
+    @Autowired
+    private RevokedTokenRepo revokedTokenRepo;
+
+    @Value("${auth.revocation.expected-revocations:100000}")
+    private int expectedRevocations;
+
+    @Value("${auth.revocation.sync-interval:PT10S}")
+    private Duration syncInterval;
+
+    // token id -> expiry
+    private final ConcurrentHashMap<String, Instant> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    // set while the filter is rebuilt, when it may briefly miss ids; lookups then use the exact set
+    private volatile boolean rebuilding;
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    @PostConstruct
+    void init() {
+        bloomFilter = new BloomFilter(expectedRevocations, 0.01);
+        sync();
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        if (rebuilding) {
+            return revoked.containsKey(tokenId);
+        }
+        return bloomFilter.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        revokedTokenRepo.save(RevokedToken.builder()
+                .tokenId(tokenId)
+                .expiresAt(expiresAt)
+                .revokedAt(Instant.now())
+                .build());
+        add(tokenId, expiresAt);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.sync-interval:PT10S}", initialDelayString = "${auth.revocation.sync-interval:PT10S}")
+    public void sync() {
+        Instant now = Instant.now();
+        // overlap one interval so rows committed late or stamped by a node with a slower clock are not skipped
+        for (RevokedToken token : revokedTokenRepo.findByRevokedAtAfterAndExpiresAtAfter(lastSync.minus(syncInterval), now)) {
+            add(token.getTokenId(), token.getExpiresAt());
+        }
+        lastSync = now;
+    }
+
+    /**
+     * Forgets ids whose tokens have expired and rebuilds the Bloom filter without them.
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.purge-interval:PT1H}", initialDelayString = "${auth.revocation.purge-interval:PT1H}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        revoked.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+
+        rebuilding = true;
+        try {
+            BloomFilter rebuilt = new BloomFilter(expectedRevocations, 0.01);
+            revoked.keySet().forEach(rebuilt::add);
+            bloomFilter = rebuilt;
+            // ids added to the old filter while the new one was filled
+            revoked.keySet().forEach(rebuilt::add);
+        } finally {
+            rebuilding = false;
+        }
+
+        revokedTokenRepo.deleteExpired(now);
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    private void add(String tokenId, Instant expiresAt) {
+        // into the exact set first, so a Bloom filter hit can always be confirmed
+        revoked.put(tokenId, expiresAt);
+        bloomFilter.add(tokenId);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.cache;
+
+import com.example.demo.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that drops cached principals whenever a {@link User} row changes,
+ * e.g. after a password reset, and records the user's new profile version. Both happen once the transaction has
+ * committed: evicting at flush time would let a concurrent request reload the old row and cache it again. Other nodes
+ * are not told; their entries expire after {@code auth.principal-cache.ttl}.
+ */
+public class UserCacheInvalidator {
+    // lazy: listeners are built while the EntityManagerFactory that PrincipalCache depends on is still starting
+    @Lazy
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Lazy
+    @Autowired
+    private ProfileVersionCache profileVersionCache;
+
+    @PostUpdate
+    public void onUpdate(User user) {
+        String email = user.getEmail();
+        long profileVersion = user.getProfileVersion();
+        afterCommit(() -> {
+            principalCache.evict(email);
+            profileVersionCache.update(email, profileVersion);
+        });
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        String email = user.getEmail();
+        afterCommit(() -> {
+            principalCache.evict(email);
+            profileVersionCache.evict(email);
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
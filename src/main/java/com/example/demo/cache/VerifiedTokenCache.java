@@ -0,0 +1,149 @@
+package com.example.demo.cache;
+
+import com.example.demo.util.TokenVerification;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Remembers tokens that already passed signature verification, keyed by a 128-bit SHA-256 prefix of the
+ * token so raw tokens are never held in memory. Each entry expires together with the token's own {@code exp}.
+ * Refused tokens are remembered too, for {@code auth.token-cache.rejected-ttl}, so a client replaying the same bad
+ * cookie costs one hash per request instead of a signature check.
+ */
+@Component
+public class VerifiedTokenCache {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.token-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.token-cache.max-size:50000}")
+    private long maxSize;
+
+    @Value("${auth.token-cache.rejected-max-size:10000}")
+    private long rejectedMaxSize;
+
+    @Value("${auth.token-cache.rejected-ttl:PT1M}")
+    private Duration rejectedTtl;
+
+    private Cache<TokenDigest, TokenVerification> cache;
+    private Cache<TokenDigest, TokenVerification> rejected;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+
+        rejected = Caffeine.newBuilder()
+                .maximumSize(rejectedMaxSize)
+                .expireAfterWrite(rejectedTtl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verified-tokens");
+        CaffeineCacheMetrics.monitor(meterRegistry, rejected, "rejected-tokens");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached outcome for the token, running {@code verifier} on a miss.
+     */
+    public TokenVerification get(String token, Function<String, TokenVerification> verifier) {
+        if (!enabled) {
+            return verifier.apply(token);
+        }
+
+        TokenDigest key = digest(token);
+        TokenVerification verification = cache.getIfPresent(key);
+        if (verification == null) {
+            verification = rejected.getIfPresent(key);
+        }
+        if (verification != null) {
+            return verification;
+        }
+
+        verification = verifier.apply(token);
+        (verification.isValid() ? cache : rejected).put(key, verification);
+        return verification;
+    }
+
+    /**
+     * Forgets every verified token, e.g. after a verification key was withdrawn.
+     */
+    public void invalidateAll() {
+        if (enabled) {
+            cache.invalidateAll();
+            rejected.invalidateAll();
+        }
+    }
+
+    /**
+     * Forgets refused tokens only, e.g. after a new verification key was added that may accept some of them.
+     */
+    public void invalidateRejected() {
+        if (enabled) {
+            rejected.invalidateAll();
+        }
+    }
+
+    public CacheStats stats() {
+        return enabled ? cache.stats() : CacheStats.empty();
+    }
+
+    private static TokenDigest digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            ByteBuffer buffer = ByteBuffer.wrap(hash);
+            return new TokenDigest(buffer.getLong(), buffer.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record TokenDigest(long high, long low) {
+    }
+
+    private static class UntilTokenExpiry implements Expiry<TokenDigest, TokenVerification> {
+        @Override
+        public long expireAfterCreate(TokenDigest key, TokenVerification verification, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), verification.claims().expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, TokenVerification verification, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, TokenVerification verification, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.example.demo.config;
 
+import com.example.demo.cache.PrincipalCache;
+import com.example.demo.cache.ProfileVersionCache;
+import com.example.demo.cache.RevokedTokenDenylist;
+import com.example.demo.enums.AuthFailure;
 import com.example.demo.model.User;
-import com.example.demo.repository.UserRepo;
+import com.example.demo.util.AuthMetrics;
 import com.example.demo.util.JwtUtil;
+import com.example.demo.util.ProfileSnapshot;
+import com.example.demo.util.TokenVerification;
+import com.example.demo.util.VerifiedClaims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,28 +24,79 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    // the verified claims of the request's token, for handlers that act on the token itself such as sign-out
+    public static final String CLAIMS_ATTRIBUTE = "tokenClaims";
+
+    // written as-is for every refused request, so a flood of bad cookies costs no formatting or exceptions
+    private static final Map<AuthFailure, byte[]> UNAUTHORIZED_BODIES = new EnumMap<>(AuthFailure.class);
+
+    static {
+        unauthorizedBody(AuthFailure.MISSING_TOKEN, "JWT Token not found");
+        unauthorizedBody(AuthFailure.INVALID_TOKEN, "Token is invalid");
+        unauthorizedBody(AuthFailure.EXPIRED_TOKEN, "Token is expired");
+        unauthorizedBody(AuthFailure.REVOKED_TOKEN, "Token has been revoked");
+        unauthorizedBody(AuthFailure.UNKNOWN_PRINCIPAL, "User not found");
+    }
+
+    private static void unauthorizedBody(AuthFailure failure, String message) {
+        UNAUTHORIZED_BODIES.put(failure, ("{\"error\": \"Unauthorized access: " + message + "\"}").getBytes(StandardCharsets.UTF_8));
+    }
+
     @Autowired
     private JwtUtil jwtUtil;
 
     @Autowired
-    private UserRepo userRepo;
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private ProfileVersionCache profileVersionCache;
+
+    @Autowired
+    private RevokedTokenDenylist revokedTokenDenylist;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @Autowired
+    private Environment environment;
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
         String requestPath = request.getRequestURI();
-        return requestPath.startsWith("/api/auth/sign-in") ||
-                requestPath.startsWith("/api/auth/sign-up") ||
-                requestPath.startsWith("/api/auth/forgot-password") ||
-                requestPath.startsWith("/api/auth/reset-password");
+        for (String publicEndpoint : SecurityConfig.PUBLIC_ENDPOINTS) {
+            if (requestPath.startsWith(publicEndpoint)) {
+                return true;
+            }
+        }
+        for (String healthEndpoint : SecurityConfig.HEALTH_ENDPOINTS) {
+            if (requestPath.startsWith(healthEndpoint)) {
+                return true;
+            }
+        }
+        return requestPath.startsWith(SecurityConfig.METRICS_ENDPOINT) && SecurityConfig.metricsOnManagementPort(environment);
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        AuthFailure failure = authenticate(request);
+        if (failure != null) {
+            reject(response, failure);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
 
+    // sets the authenticated principal, or returns why the request is refused
+    private AuthFailure authenticate(HttpServletRequest request) {
         String jwtToken = null;
 
         Cookie[] cookies = request.getCookies();
@@ -50,38 +109,62 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
         }
 
-        try {
-            if(jwtToken == null) {
-                throw new ServletException("JWT Token not found");
-            }
+        if(jwtToken == null) {
+            return AuthFailure.MISSING_TOKEN;
+        }
 
-            String email = jwtUtil.extractEmail(jwtToken);
+        // one parse checks the signature and expiry; a token that reaches this point is not expired
+        TokenVerification verification = jwtUtil.check(jwtToken);
+        if(!verification.isValid()) {
+            return verification.failure();
+        }
+        VerifiedClaims claims = verification.claims();
+        String email = claims.subject();
 
-            if(email == null) {
-                throw new IllegalArgumentException("Invalid token payload");
-            }
+        if(email == null) {
+            return AuthFailure.INVALID_TOKEN;
+        }
+        if(revokedTokenDenylist.isRevoked(claims.tokenId())) {
+            return AuthFailure.REVOKED_TOKEN;
+        }
 
-            Optional<User> user = userRepo.findByEmail(email);
-            if(user.isEmpty()) {
-                throw new ServletException("User not found");
-            }
+        Optional<User> user = principalFromClaims(claims);
+        if(user.isEmpty()) {
+            user = principalCache.get(email);
+        }
+        if(user.isEmpty()) {
+            return AuthFailure.UNKNOWN_PRINCIPAL;
+        }
+        // a snapshot principal is only used while the user row is unchanged, so it has no newer watermark
+        Instant validAfter = user.get().getTokensValidAfter();
+        if(validAfter != null && claims.issuedAt() != null && claims.issuedAt().isBefore(validAfter)) {
+            return AuthFailure.REVOKED_TOKEN;
+        }
 
-            if(jwtUtil.isTokenExpired(jwtToken)) {
-                System.out.println("JWT Token invalid");
-                throw new IllegalArgumentException("Invalid token");
-            }
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(user.get(), null, user.get().getAuthorities());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(user.get(), null, user.get().getAuthorities());
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        request.setAttribute("email", email);
+        request.setAttribute(CLAIMS_ATTRIBUTE, claims);
+        return null;
+    }
 
-            request.setAttribute("email", email);
-            filterChain.doFilter(request, response);
-        } catch (Exception e) {
-            e.printStackTrace();
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            response.setContentType("application/json");
-            response.getWriter().write("{\"error\": \"Unauthorized access: " + e.getMessage() + "\"}");
-            return;
+    private void reject(HttpServletResponse response, AuthFailure failure) throws IOException {
+        authMetrics.failure(failure);
+
+        byte[] body = UNAUTHORIZED_BODIES.get(failure);
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType("application/json");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // a snapshot whose version is still current is as good as the row it was taken from
+    private Optional<User> principalFromClaims(VerifiedClaims claims) {
+        ProfileSnapshot profile = claims.profile();
+        if (profile == null || !profileVersionCache.isCurrent(claims.subject(), profile.version())) {
+            return Optional.empty();
         }
+        return Optional.of(profile.toUser(claims.subject()));
     }
 }
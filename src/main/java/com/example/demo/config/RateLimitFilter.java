@@ -0,0 +1,50 @@
+package com.example.demo.config;
+
+import com.example.demo.util.AuthRateLimits;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Rejects public auth requests from an IP that has used up its budget, before the body is read or any
+ * password is hashed. The client address is the socket peer; behind a proxy set
+ * {@code server.forward-headers-strategy} so it reflects X-Forwarded-For.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    @Autowired
+    private AuthRateLimits authRateLimits;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
+        String requestPath = request.getRequestURI();
+        for (String publicEndpoint : SecurityConfig.PUBLIC_ENDPOINTS) {
+            if (requestPath.startsWith(publicEndpoint)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long retryAfterSeconds = authRateLimits.ipRetryAfterSeconds(request.getRemoteAddr());
+        if (retryAfterSeconds > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType("text/plain");
+            response.getWriter().write(AuthRateLimits.LIMIT_EXCEEDED_MESSAGE);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate's second-level cache for {@link com.example.demo.model.User}, held in Caffeine through JCache. Users are
+ * cached by id and their email resolves to the id through the natural-id cache, so repeated lookups by email skip the
+ * database. Entries are per node and expire after {@code auth.user-cache.ttl}, which bounds how long another node's
+ * change (a password reset, a lockout) can go unseen here.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+    public static final String USERS_REGION = "users";
+    public static final String USERS_BY_EMAIL_REGION = "users-by-email";
+
+    @Value("${auth.user-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.user-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${auth.user-cache.ttl:PT1M}")
+    private Duration ttl;
+
+    // one manager per application context; the provider's default manager is shared by the whole JVM
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(MeterRegistry meterRegistry) {
+        CaffeineCachingProvider provider = (CaffeineCachingProvider) Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("hibernate:" + UUID.randomUUID()), getClass().getClassLoader());
+
+        for (String region : new String[]{USERS_REGION, USERS_BY_EMAIL_REGION}) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            // Hibernate caches disassembled, immutable entries, so copying them on every access buys nothing
+            configuration.setStoreByValue(false);
+            configuration.setStatisticsEnabled(true);
+
+            Cache<Object, Object> cache = cacheManager.createCache(region, configuration);
+            JCacheMetrics.monitor(meterRegistry, cache);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            // every cached region is created above; a typo in a region name should fail at startup
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+}
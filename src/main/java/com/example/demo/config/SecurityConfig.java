@@ -1,37 +1,103 @@
 package com.example.demo.config;
 
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration
 public class SecurityConfig {
+    // reachable without a token and rate limited per IP; JwtAuthenticationFilter skips these as well
+    public static final String[] PUBLIC_ENDPOINTS = {
+            "/api/auth/forgot-password",
+            "/api/auth/sign-in",
+            "/api/auth/sign-up",
+            "/api/auth/reset-password",
+            "/api/auth/refresh",
+            "/api/auth/async/sign-in",
+            "/api/auth/async/sign-up",
+            "/api/auth/async/reset-password",
+    };
+
+    // for load balancers and orchestrator probes; public but not rate limited, so frequent probes never get a 429
+    public static final String[] HEALTH_ENDPOINTS = {
+            "/actuator/health",
+    };
+
+    public static final String METRICS_ENDPOINT = "/actuator/prometheus";
+
+    /**
+     * Metrics are open to the scraper only when actuator runs on its own {@code management.server.port}, which is
+     * meant to be reachable from the internal network only. Served on the application port they need an admin.
+     */
+    public static boolean metricsOnManagementPort(Environment environment) {
+        return ManagementPortType.get(environment) == ManagementPortType.DIFFERENT;
+    }
+
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter,
+                                                   RateLimitFilter rateLimitFilter, Environment environment) throws Exception {
+        boolean metricsOnManagementPort = metricsOnManagementPort(environment);
         http
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/auth/forgot-password", "/api/auth/sign-in", "/api/auth/sign-up", "/api/auth/reset-password").permitAll()
+                        .requestMatchers(PUBLIC_ENDPOINTS).permitAll()
+                        .requestMatchers(HEALTH_ENDPOINTS).permitAll()
+                        // the request was authorised before it went async; stateless sessions cannot restore it on re-dispatch
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        .requestMatchers(METRICS_ENDPOINT).access(metricsOnManagementPort
+                                ? (authentication, context) -> new AuthorizationDecision(true)
+                                : AuthorityAuthorizationManager.hasRole("ADMIN"))
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
         ;
 
         return http.build();
     }
 
+    /**
+     * New hashes are written with {@code auth.password.encoder} (bcrypt, pbkdf2 or argon2) and prefixed with its id.
+     * Hashes from any registered encoder still match, and {@link PasswordEncoder#upgradeEncoding} reports the
+     * ones written with another encoder or a lower BCrypt strength so they are re-hashed on the next login.
+     */
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.password.encoder:bcrypt}") String encodingId,
+                                           @Value("${auth.password.bcrypt-strength:10}") int bcryptStrength) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        encoders.put("argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(encodingId, encoders);
+        // hashes stored before the {id} prefix was introduced are plain BCrypt
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return passwordEncoder;
     }
 
     @Bean
@@ -17,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -28,14 +29,7 @@ public class AuthController {
     public ResponseEntity<?> signup(@RequestBody @Valid SignUpForm user, BindingResult bindingResult) {
 
         if(bindingResult.hasErrors()) {
-            Map<String, String> errors = new HashMap<>();
-            bindingResult.getFieldErrors().forEach(error -> {
-                String field = error.getField();
-                String message = error.getDefaultMessage();
-                errors.put(field, message);
-            });
-
-            return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+            return validationErrors(bindingResult);
         }
 
         return authService.signUp(user);
@@ -44,14 +38,7 @@ public class AuthController {
     @PostMapping("/sign-in")
     public ResponseEntity<?> signin(@RequestBody @Valid LoginForm user, BindingResult bindingResult, HttpServletResponse response) {
         if(bindingResult.hasErrors()) {
-            Map<String, String> errors = new HashMap<>();
-            bindingResult.getFieldErrors().forEach(error -> {
-                String field = error.getField();
-                String message = error.getDefaultMessage();
-                errors.put(field, message);
-            });
-
-            return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+            return validationErrors(bindingResult);
         }
 
         return authService.loginUser(user, response);
@@ -60,14 +47,7 @@ public class AuthController {
     @PostMapping("/forgot-password")
     public ResponseEntity<?> forgotPassword(@RequestBody @Valid ForgotPass forgotPass, BindingResult bindingResult) {
         if (bindingResult.hasErrors()) {
-            Map<String, String> errors = new HashMap<>();
-            bindingResult.getFieldErrors().forEach(error -> {
-                String field = error.getField();
-                String message = error.getDefaultMessage();
-                errors.put(field, message);
-            });
-
-            return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+            return validationErrors(bindingResult);
         }
 
         return authService.forgotPassword(forgotPass);
@@ -76,26 +56,64 @@ public class AuthController {
     @PostMapping("/reset-password")
     public ResponseEntity<?> resetPassword(@RequestBody @Valid ResetPasswordForm resetPasswordForm, BindingResult bindingResult) {
         if (bindingResult.hasErrors()) {
-            Map<String, String> errors = new HashMap<>();
-            bindingResult.getFieldErrors().forEach(error -> {
-                String field = error.getField();
-                String message = error.getDefaultMessage();
-                errors.put(field, message);
-            });
-
-            return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+            return validationErrors(bindingResult);
         }
 
         return authService.resetPassword(resetPasswordForm);
     }
 
+    // async variants release the request thread while the password is hashed
+
+    @PostMapping("/async/sign-up")
+    public CompletableFuture<ResponseEntity<?>> signupAsync(@RequestBody @Valid SignUpForm user, BindingResult bindingResult) {
+        if(bindingResult.hasErrors()) {
+            return CompletableFuture.completedFuture(validationErrors(bindingResult));
+        }
+
+        return authService.signUpAsync(user);
+    }
+
+    @PostMapping("/async/sign-in")
+    public CompletableFuture<ResponseEntity<?>> signinAsync(@RequestBody @Valid LoginForm user, BindingResult bindingResult, HttpServletResponse response) {
+        if(bindingResult.hasErrors()) {
+            return CompletableFuture.completedFuture(validationErrors(bindingResult));
+        }
+
+        return authService.loginUserAsync(user, response);
+    }
+
+    @PostMapping("/async/reset-password")
+    public CompletableFuture<ResponseEntity<?>> resetPasswordAsync(@RequestBody @Valid ResetPasswordForm resetPasswordForm, BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            return CompletableFuture.completedFuture(validationErrors(bindingResult));
+        }
+
+        return authService.resetPasswordAsync(resetPasswordForm);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@CookieValue(name = "refreshToken", required = false) String refreshToken, HttpServletResponse response) {
+        return authService.refresh(refreshToken, response);
+    }
+
     @GetMapping("/sign-out")
-    public ResponseEntity<?> signOut(HttpServletResponse response) {
-        return authService.logout(response);
+    public ResponseEntity<?> signOut(HttpServletRequest request, HttpServletResponse response) {
+        return authService.logout(request, response);
     }
 
     @GetMapping("/profile")
     public ResponseEntity<?> profile(HttpServletRequest request) {
         return authService.getProfile(request);
     }
+
+    private ResponseEntity<?> validationErrors(BindingResult bindingResult) {
+        Map<String, String> errors = new HashMap<>();
+        bindingResult.getFieldErrors().forEach(error -> {
+            String field = error.getField();
+            String message = error.getDefaultMessage();
+            errors.put(field, message);
+        });
+
+        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    }
 }
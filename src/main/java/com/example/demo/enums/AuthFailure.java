@@ -0,0 +1,19 @@
+package com.example.demo.enums;
+
+/**
+ * Why an authentication attempt was refused; each one has its own {@code auth.failures} counter.
+ */
+public enum AuthFailure {
+    MISSING_TOKEN,
+    INVALID_TOKEN,
+    EXPIRED_TOKEN,
+    REVOKED_TOKEN,
+    UNKNOWN_PRINCIPAL,
+    USER_NOT_FOUND,
+    BAD_PASSWORD,
+    ACCOUNT_LOCKED,
+    RATE_LIMITED,
+    INVALID_RESET_CODE,
+    INVALID_REFRESH_TOKEN,
+    DUPLICATE_EMAIL,
+}
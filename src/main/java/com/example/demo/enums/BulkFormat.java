@@ -0,0 +1,27 @@
+package com.example.demo.enums;
+
+import org.springframework.http.MediaType;
+
+public enum BulkFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    CSV(new MediaType("text", "csv"));
+
+    private final MediaType mediaType;
+
+    BulkFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static BulkFormat of(MediaType mediaType) {
+        for (BulkFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(mediaType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported format: " + mediaType);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.demo.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED,
+}
@@ -0,0 +1,18 @@
+package com.example.demo.exception;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Thrown for an account that is locked after repeated failures; surfaced to clients as 423 with Retry-After.
+ */
+@Getter
+public class AccountLockedException extends RuntimeException {
+    private final Instant lockedUntil;
+
+    public AccountLockedException(Instant lockedUntil) {
+        super("Account is temporarily locked after too many failed attempts");
+        this.lockedUntil = lockedUntil;
+    }
+}
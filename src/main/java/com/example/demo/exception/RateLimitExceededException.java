@@ -0,0 +1,16 @@
+package com.example.demo.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a caller has used up its request budget; surfaced to clients as 429 with Retry-After.
+ */
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.demo.exception;
+
+/**
+ * Thrown when a bounded worker pool cannot accept more work; surfaced to clients as 503.
+ */
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
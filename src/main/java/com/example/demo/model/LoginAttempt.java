@@ -0,0 +1,31 @@
+package com.example.demo.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "login_attempt")
+public class LoginAttempt {
+    // scope and normalised email, e.g. "LOGIN:user@example.com"
+    @Id
+    private String id;
+
+    private int failures;
+
+    private Instant windowStart;
+
+    private int lockouts;
+
+    private Instant lockedUntil;
+}
@@ -0,0 +1,36 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * An outbound mail that could not be delivered after every retry, kept for inspection until the outbox retention
+ * purge removes it. Only the recipient and the subject, which names the template, are kept: the body holds a
+ * verification code, so a resend means asking the user to request a new one.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MailDeadLetter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    private String recipient;
+
+    private String subject;
+
+    @Column(length = 1000)
+    private String error;
+
+    private int attempts;
+
+    private Instant failedAt;
+}
@@ -0,0 +1,45 @@
+package com.example.demo.model;
+
+import com.example.demo.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A mail waiting to be sent, written in the same transaction as the data it announces.
+ * {@code MailOutboxRelay} claims rows, sends them and marks them {@link OutboxStatus#SENT}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(indexes = @Index(name = "idx_mail_outbox_status_created", columnList = "status, createdAt"))
+public class MailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    private String recipient;
+
+    private String subject;
+
+    @Column(length = 2000)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    private OutboxStatus status;
+
+    private int attempts;
+
+    private Instant createdAt;
+
+    // set when a relay claims the row; a SENDING row whose claim is older than the lease is claimed again
+    private Instant claimedAt;
+
+    private Instant sentAt;
+}
@@ -0,0 +1,44 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "idx_refresh_token_hash", columnList = "tokenHash", unique = true),
+        @Index(name = "idx_refresh_token_family", columnList = "familyId")
+})
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    // SHA-256 of the token; the token itself is only ever held by the client
+    @Column(nullable = false)
+    private String tokenHash;
+
+    // every token rotated from the same sign-in shares the family, so a replay can revoke all of them
+    @Column(nullable = false)
+    private String familyId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "userId", nullable = false)
+    private User user;
+
+    private Instant createdAt;
+
+    // fixed at sign-in; rotation does not extend it
+    private Instant expiresAt;
+
+    // set once the token has been exchanged; presenting it again is a replay
+    private Instant usedAt;
+}
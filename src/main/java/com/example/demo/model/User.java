@@ -1,5 +1,8 @@
 package com.example.demo.model;
 
+import com.example.demo.cache.UserCacheInvalidator;
+import com.example.demo.config.SecondLevelCacheConfig;
+import com.example.demo.enums.Role;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
@@ -7,21 +10,33 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.USERS_REGION)
+@NaturalIdCache(region = SecondLevelCacheConfig.USERS_BY_EMAIL_REGION)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Table(name = "users")
+@EntityListeners(UserCacheInvalidator.class)
 public class User implements UserDetails {
+    private static final List<GrantedAuthority> ADMIN_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
@@ -35,6 +50,12 @@ public class User implements UserDetails {
     @Column(unique = true)
     private String email;
 
+    // lower-cased and trimmed copy of email that every lookup goes through, so Foo@x.com and foo@x.com are one account
+    @JsonIgnore
+    @NaturalId(mutable = true)
+    @Column(name = "email_normalized", unique = true)
+    private String emailNormalized;
+
     @JsonIgnore
     @NotBlank(message = "Password is required")
     @Size(min = 8, message = "Password must be at least 8 characters long")
@@ -48,14 +69,56 @@ public class User implements UserDetails {
     @Size(max = 255, message = "Address must not exceed 255 characters")
     private String address;
 
+    // bumped on every update, so profile snapshots embedded in tokens can be recognised as stale
+    @JsonIgnore
+    private long profileVersion;
+
+    // tokens issued before this instant are rejected, e.g. after a password reset; whole seconds, like the iat claim
+    @JsonIgnore
+    private Instant tokensValidAfter;
+
+    // set when repeated failed logins lock the account; see LoginAttemptService
+    @JsonIgnore
+    private Instant lockedUntil;
+
+    // granted out of band (see README); sign-up and bulk import never set it, and null reads as USER
+    @JsonIgnore
+    @Enumerated(EnumType.STRING)
+    private Role role;
+
     @JsonIgnore
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<VerificationCode> verificationCodes;
 
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+        this.emailNormalized = normalizeEmail(email);
+    }
+
+    // users created through the builder only have email set
+    @PrePersist
+    void normalizeEmail() {
+        emailNormalized = normalizeEmail(email);
+    }
+
+    @PreUpdate
+    void bumpProfileVersion() {
+        profileVersion++;
+    }
+
     @Override
     @JsonIgnore
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of();
+        return isAdmin() ? ADMIN_AUTHORITIES : List.of();
+    }
+
+    @JsonIgnore
+    public boolean isAdmin() {
+        return role == Role.ADMIN;
     }
 
     @Override
@@ -73,7 +136,7 @@ public class User implements UserDetails {
     @Override
     @JsonIgnore
     public boolean isAccountNonLocked() {
-        return true;
+        return lockedUntil == null || !lockedUntil.isAfter(Instant.now());
     }
 
     @Override
@@ -8,11 +8,19 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(indexes = {
+        @Index(name = "idx_verification_code_user_type", columnList = "userId, type"),
+        @Index(name = "idx_verification_code_code", columnList = "code"),
+        // lets the purge job find expired codes in small chunks without scanning the table
+        @Index(name = "idx_verification_code_expires_at", columnList = "expiresAt")
+})
 public class VerificationCode {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -27,4 +35,8 @@ public class VerificationCode {
 
     @Enumerated(EnumType.STRING)
     private CodeType type;
+
+    private Instant createdAt;
+
+    private Instant expiresAt;
 }
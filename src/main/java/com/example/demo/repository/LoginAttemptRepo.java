@@ -0,0 +1,30 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.LoginAttempt;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface LoginAttemptRepo extends JpaRepository<LoginAttempt, String> {
+
+    @Query("select a.lockedUntil from LoginAttempt a where a.id = :id and a.lockedUntil > :now")
+    Optional<Instant> findLockedUntil(String id, Instant now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from LoginAttempt a where a.id = :id")
+    Optional<LoginAttempt> findForUpdate(String id);
+
+    // a single statement, so a successful login without earlier failures costs no extra read
+    @Transactional
+    @Modifying
+    @Query("delete from LoginAttempt a where a.id = :id")
+    void deleteByIdDirectly(String id);
+}
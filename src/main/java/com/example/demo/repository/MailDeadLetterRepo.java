@@ -0,0 +1,17 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.MailDeadLetter;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface MailDeadLetterRepo extends JpaRepository<MailDeadLetter, String> {
+
+    @Query("select d.id from MailDeadLetter d where d.failedAt < :failedBefore")
+    List<String> findIdsFailedBefore(Instant failedBefore, Limit limit);
+}
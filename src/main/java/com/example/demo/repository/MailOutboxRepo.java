@@ -0,0 +1,48 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.MailOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MailOutboxRepo extends JpaRepository<MailOutbox, String> {
+
+    /**
+     * Oldest rows that are pending, or whose claim lease has run out. Rows locked by another relay are
+     * skipped rather than waited on (a lock timeout of -2 is Hibernate's SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select m from MailOutbox m " +
+            "where m.status = com.example.demo.enums.OutboxStatus.PENDING " +
+            "or (m.status = com.example.demo.enums.OutboxStatus.SENDING and m.claimedAt < :leaseExpiredBefore) " +
+            "order by m.createdAt")
+    List<MailOutbox> findClaimable(Instant leaseExpiredBefore, Limit limit);
+
+    // the body carries the verification code, so it is not kept once the mail is out
+    @Modifying
+    @Query("update MailOutbox m set m.status = com.example.demo.enums.OutboxStatus.SENT, m.sentAt = :sentAt, m.body = null " +
+            "where m.id in :ids")
+    int markSent(Collection<String> ids, Instant sentAt);
+
+    // a failed mail is never resent from the outbox, so its code is dropped as well
+    @Modifying
+    @Query("update MailOutbox m set m.status = com.example.demo.enums.OutboxStatus.FAILED, m.body = null where m.id in :ids")
+    int markFailed(Collection<String> ids);
+
+    @Query("select m.id from MailOutbox m " +
+            "where m.status in (com.example.demo.enums.OutboxStatus.SENT, com.example.demo.enums.OutboxStatus.FAILED) " +
+            "and m.createdAt < :createdBefore")
+    List<String> findSettledIds(Instant createdBefore, Limit limit);
+}
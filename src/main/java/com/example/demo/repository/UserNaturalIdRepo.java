@@ -0,0 +1,27 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.User;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+
+import java.util.Optional;
+
+/**
+ * Lookups match the normalized email (see {@link User#normalizeEmail(String)}), so they ignore case and surrounding
+ * spaces while staying equality probes on the {@code email_normalized} index.
+ */
+public interface UserNaturalIdRepo {
+
+    /**
+     * Loads a user by email through Hibernate's natural-id API, which resolves the email to an id and the id to the
+     * entity from the second-level cache before falling back to a query. Outside a transaction the user is loaded
+     * read-only, since it is detached as soon as this returns.
+     */
+    Optional<User> findByEmail(@NotBlank(message = "Email is required") @Email(message = "Invalid email format") String email);
+
+    /**
+     * Resolves only the email to an id, from the natural-id cache or by selecting the id column; the user itself is
+     * never loaded.
+     */
+    boolean existsByEmail(String email);
+}
@@ -0,0 +1,43 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SimpleNaturalIdLoadAccess;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+class UserNaturalIdRepoImpl implements UserNaturalIdRepo {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return withSession(byEmail -> byEmail.loadOptional(User.normalizeEmail(email)));
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return withSession(byEmail -> byEmail.getReference(User.normalizeEmail(email)) != null);
+    }
+
+    private <T> T withSession(Function<SimpleNaturalIdLoadAccess<User>, T> lookup) {
+        EntityManager transactional = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (transactional != null) {
+            return lookup.apply(transactional.unwrap(Session.class).bySimpleNaturalId(User.class));
+        }
+
+        // outside a transaction the shared EntityManager closes its session before returning it from unwrap(), so
+        // open one just for the lookup; it only borrows a connection when the caches miss
+        try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+            Session session = entityManager.unwrap(Session.class);
+            // nothing is flushed from this session, so skip the snapshot Hibernate keeps for dirty checking
+            session.setDefaultReadOnly(true);
+            return lookup.apply(session.bySimpleNaturalId(User.class));
+        }
+    }
+}
@@ -1,15 +1,22 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.User;
-import jakarta.validation.constraints.Email;
-import jakarta.validation.constraints.NotBlank;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepo extends JpaRepository<User, String> {
+public interface UserRepo extends JpaRepository<User, String>, UserNaturalIdRepo {
 
-    Optional<User> findByEmail(@NotBlank(message = "Email is required") @Email(message = "Invalid email format") String email);
+    // expects and returns normalized emails
+    @Query("select u.emailNormalized from User u where u.emailNormalized in :emails")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    // expects a normalized email
+    @Query("select u.profileVersion from User u where u.emailNormalized = :email")
+    Optional<Long> findProfileVersionByEmail(String email);
 }
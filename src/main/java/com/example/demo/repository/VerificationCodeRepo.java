@@ -1,14 +1,45 @@
 package com.example.demo.repository;
 
+import com.example.demo.enums.CodeType;
 import com.example.demo.model.User;
 import com.example.demo.model.VerificationCode;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface VerificationCodeRepo extends JpaRepository<VerificationCode, String> {
 
-    Optional<VerificationCode> findByUser(User user);
+    /**
+     * Newest unexpired code of the given type for the user, fetched together with the user in one query.
+     */
+    @EntityGraph(attributePaths = "user")
+    Optional<VerificationCode> findFirstByUserEmailNormalizedAndCodeAndTypeAndExpiresAtAfterOrderByCreatedAtDesc(String emailNormalized, String code, CodeType type, Instant now);
+
+    default Optional<VerificationCode> findNewestValid(String email, String code, CodeType type) {
+        return findFirstByUserEmailNormalizedAndCodeAndTypeAndExpiresAtAfterOrderByCreatedAtDesc(User.normalizeEmail(email), code, type, Instant.now());
+    }
+
+    // the row lock taken by the delete makes a concurrent consumer of the same code wait and then delete nothing
+    @Transactional
+    @Modifying
+    @Query("delete from VerificationCode v where v.user = :user and v.code = :code and v.type = :type and v.expiresAt > :now")
+    int deleteValid(User user, String code, CodeType type, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from VerificationCode v where v.user = :user and v.type = :type")
+    int deleteByUserAndType(User user, CodeType type);
+
+    // codes stored before expiry was tracked have no expiresAt and can never be used, so they go too
+    @Query("select v.id from VerificationCode v where v.expiresAt is null or v.expiresAt < :now")
+    List<String> findExpiredIds(Instant now, Limit limit);
 }
@@ -9,16 +9,26 @@ import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface AuthService {
     ResponseEntity<?> signUp(SignUpForm user);
 
+    CompletableFuture<ResponseEntity<?>> signUpAsync(SignUpForm user);
+
     ResponseEntity<?> forgotPassword(@Valid ForgotPass forgotPass);
 
     ResponseEntity<?> loginUser(@Valid LoginForm user, HttpServletResponse response);
 
+    CompletableFuture<ResponseEntity<?>> loginUserAsync(@Valid LoginForm user, HttpServletResponse response);
+
     ResponseEntity<?> resetPassword(@Valid ResetPasswordForm resetPasswordForm);
 
-    ResponseEntity<?> logout(HttpServletResponse response);
+    CompletableFuture<ResponseEntity<?>> resetPasswordAsync(@Valid ResetPasswordForm resetPasswordForm);
+
+    ResponseEntity<?> refresh(String refreshToken, HttpServletResponse response);
+
+    ResponseEntity<?> logout(HttpServletRequest request, HttpServletResponse response);
 
     ResponseEntity<?> getProfile(HttpServletRequest request);
 }
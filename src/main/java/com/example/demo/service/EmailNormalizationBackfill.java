@@ -0,0 +1,94 @@
+package com.example.demo.service;
+
+import com.example.demo.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills {@code users.email_normalized} for rows written before the column existed. Runs once at startup, before the
+ * application takes requests, since lookups only match the normalized email. Rows are walked by id in batches, each
+ * updated in its own short transaction. A row whose normalized email is already taken by another account (the same
+ * address in a different case) is left empty and logged; those accounts have to be merged by hand.
+ */
+@Slf4j
+@Component
+public class EmailNormalizationBackfill {
+    private static final String SELECT_PENDING =
+            "select id, email from users where email_normalized is null and id > ? order by id limit ?";
+    private static final String UPDATE_NORMALIZED = "update users set email_normalized = ? where id = ?";
+
+    // also orders this after the schema update that adds the column
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${auth.email-backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.email-backfill.batch-size:1000}")
+    private int batchSize;
+
+    @PostConstruct
+    void backfillOnStartup() {
+        if (enabled) {
+            backfill();
+        }
+    }
+
+    public int backfill() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int updated = 0;
+        String lastId = "";
+        while (true) {
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            jdbcTemplate.query(SELECT_PENDING, rs -> {
+                batch.add(new Object[]{User.normalizeEmail(rs.getString("email")), rs.getString("id")});
+            }, lastId, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            lastId = (String) batch.get(batch.size() - 1)[1];
+
+            try {
+                transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_NORMALIZED, batch));
+                updated += batch.size();
+            } catch (DuplicateKeyException e) {
+                // the batch rolled back; retry row by row to isolate the conflicting accounts
+                for (Object[] row : batch) {
+                    try {
+                        jdbcTemplate.update(UPDATE_NORMALIZED, row);
+                        updated++;
+                    } catch (DuplicateKeyException duplicate) {
+                        log.warn("Cannot normalize the email of user {}: {} belongs to another account", row[1], row[0]);
+                    }
+                }
+            }
+        }
+
+        if (updated > 0) {
+            // rows changed behind Hibernate's back; drop anything the second-level cache holds for them
+            org.hibernate.Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            cache.evictEntityData(User.class);
+            cache.evictNaturalIdData(User.class);
+            log.info("Normalized the email of {} users", updated);
+        }
+        return updated;
+    }
+}
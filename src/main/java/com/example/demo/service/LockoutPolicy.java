@@ -0,0 +1,17 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+
+/**
+ * {@code maxFailures} failures inside {@code window} lock the key. Each further lockout before a success doubles
+ * the lock, starting at {@code baseLockout} and capped at {@code maxLockout}.
+ */
+public record LockoutPolicy(int maxFailures, Duration window, Duration baseLockout, Duration maxLockout) {
+
+    public Duration lockoutFor(int lockouts) {
+        // past 2^20 the cap applies anyway, and the shift must not overflow
+        int doublings = Math.min(Math.max(lockouts - 1, 0), 20);
+        Duration lockout = baseLockout.multipliedBy(1L << doublings);
+        return lockout.compareTo(maxLockout) > 0 ? maxLockout : lockout;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.service;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Failed-attempt counters behind {@link LoginAttemptService}. Selected with {@code auth.lockout.store}:
+ * {@code memory} (default) counts per node in a sliding window, {@code jpa} shares counters between nodes
+ * through the {@code login_attempt} table using a fixed window.
+ */
+public interface LoginAttemptStore {
+
+    /**
+     * When the key's current lock ends, if it is locked.
+     */
+    Optional<Instant> lockedUntil(String key);
+
+    /**
+     * Counts a failure and returns the end of the lock it triggered, if any.
+     */
+    Optional<Instant> recordFailure(String key, LockoutPolicy policy);
+
+    void reset(String key);
+}
@@ -0,0 +1,147 @@
+package com.example.demo.service;
+
+import com.example.demo.enums.AttemptScope;
+import com.example.demo.enums.AuthFailure;
+import com.example.demo.exception.AccountLockedException;
+import com.example.demo.model.RefreshToken;
+import com.example.demo.model.User;
+import com.example.demo.repository.RefreshTokenRepo;
+import com.example.demo.util.AuthMetrics;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Single-use refresh tokens. Each exchange marks the presented token used and issues its successor in the same family;
+ * presenting a used token again means it was copied, so the whole family is revoked and both holders have to sign in.
+ * Only SHA-256 hashes are stored.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepo refreshTokenRepo;
+
+    @Autowired
+    private LoginAttemptService loginAttemptService;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @Getter
+    @Value("${auth.refresh-token.ttl:P14D}")
+    private Duration ttl;
+
+    public record Rotation(User user, String refreshToken) {
+    }
+
+    /**
+     * Starts a new family for a fresh sign-in and returns the raw token for the client.
+     */
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID().toString(), Instant.now().plus(ttl));
+    }
+
+    /**
+     * Exchanges a refresh token for its successor. Empty when the token is unknown, expired or replayed; throws
+     * {@link AccountLockedException} while the account is locked, leaving the token usable once the lock ends.
+     */
+    @Transactional
+    public Optional<Rotation> rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return Optional.empty();
+        }
+
+        Optional<RefreshToken> stored = refreshTokenRepo.findByTokenHash(hash(rawToken));
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+
+        RefreshToken refreshToken = stored.get();
+        Instant now = Instant.now();
+        if (refreshToken.getUsedAt() != null) {
+            log.warn("Refresh token reused for user {}, revoking its family", refreshToken.getUser().getId());
+            refreshTokenRepo.deleteFamily(refreshToken.getFamilyId());
+            return Optional.empty();
+        }
+        if (!refreshToken.getExpiresAt().isAfter(now)) {
+            return Optional.empty();
+        }
+
+        // otherwise a locked account could keep minting access tokens without ever presenting a password
+        User user = refreshToken.getUser();
+        loginAttemptService.checkNotLocked(AttemptScope.LOGIN, user.getEmail());
+        if (!user.isAccountNonLocked()) {
+            authMetrics.failure(AuthFailure.ACCOUNT_LOCKED);
+            throw new AccountLockedException(user.getLockedUntil());
+        }
+
+        refreshToken.setUsedAt(now);
+        refreshTokenRepo.save(refreshToken);
+
+        return Optional.of(new Rotation(user, issue(user, refreshToken.getFamilyId(), refreshToken.getExpiresAt())));
+    }
+
+    /**
+     * Ends the sign-in the token belongs to, e.g. on sign-out.
+     */
+    @Transactional
+    public void revokeFamily(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return;
+        }
+        refreshTokenRepo.findByTokenHash(hash(rawToken))
+                .ifPresent(refreshToken -> refreshTokenRepo.deleteFamily(refreshToken.getFamilyId()));
+    }
+
+    public void revokeAll(User user) {
+        refreshTokenRepo.deleteByUser(user);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.refresh-token.purge-interval:PT1H}", initialDelayString = "${auth.refresh-token.purge-interval:PT1H}")
+    public void purgeExpired() {
+        refreshTokenRepo.deleteExpired(Instant.now());
+    }
+
+    private String issue(User user, String familyId, Instant expiresAt) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepo.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .user(user)
+                .createdAt(Instant.now())
+                .expiresAt(expiresAt)
+                .build());
+        return rawToken;
+    }
+
+    // the token is 256 random bits, so an unsalted fast hash is enough to make a leaked table useless
+    private static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.example.demo.service;
+
+import com.example.demo.enums.BulkFormat;
+import com.example.demo.forms.SignUpForm;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepo;
+import com.example.demo.util.AuthMetrics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Imports and exports users as NDJSON or CSV without holding the whole file in memory.
+ * <p>
+ * Imported rows are validated like {@link SignUpForm} and processed in batches: one query finds the emails that are
+ * already taken, the passwords are hashed in parallel on a pool of their own, and the rest is written with a single
+ * JDBC batch insert. Request threads and logins keep the shared {@link com.example.demo.util.PasswordHasher} pool to
+ * themselves. Exports read through a forward-only cursor.
+ */
+@Service
+public class UserBulkService {
+    private static final String INSERT_USER =
+            "insert into users (id, full_name, email, email_normalized, password, phone_number, address, role, profile_version) values (?, ?, ?, ?, ?, ?, ?, 'USER', 0)";
+    private static final String SELECT_USERS = "select id, full_name, email, phone_number, address from users";
+    private static final List<String> IMPORT_COLUMNS = List.of("fullName", "email", "password", "phoneNumber", "address");
+    private static final List<String> EXPORT_COLUMNS = List.of("id", "fullName", "email", "phoneNumber", "address");
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${auth.bulk.batch-size:500}")
+    private int batchSize;
+
+    // 0 means half of the available processors, leaving the rest for logins
+    @Value("${auth.bulk.hashing-threads:0}")
+    private int hashingThreads;
+
+    @Value("${auth.bulk.export-fetch-size:1000}")
+    private int exportFetchSize;
+
+    // failed rows beyond this are counted but not listed
+    @Value("${auth.bulk.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private ThreadPoolExecutor hashingPool;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readTransaction;
+
+    public record RowError(long line, String email, String message) {
+    }
+
+    public record ImportReport(long imported, long failed, List<RowError> errors) {
+    }
+
+    private record ImportRow(long line, SignUpForm form) {
+    }
+
+    public record ExportedUser(String id, String fullName, String email, String phoneNumber, String address) {
+    }
+
+    @PostConstruct
+    void init() {
+        int poolSize = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        // a full queue makes the importing thread hash too, which throttles reading instead of buffering the file
+        hashingPool = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(poolSize * 4),
+                new CustomizableThreadFactory("bulk-hasher-"),
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        authMetrics.monitor(hashingPool, "bulk-hasher");
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    public ImportReport importUsers(InputStream body, BulkFormat format) throws IOException {
+        Progress progress = new Progress();
+        Set<String> seenEmails = new HashSet<>();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<String> header = format == BulkFormat.CSV ? csvHeader(reader) : null;
+
+        String line;
+        long lineNumber = header == null ? 0 : 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            SignUpForm form;
+            try {
+                form = header == null ? objectMapper.readValue(line, SignUpForm.class) : csvRow(header, line);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                progress.reject(lineNumber, null, "Malformed row");
+                continue;
+            }
+
+            String violations = violations(form);
+            if (violations != null) {
+                progress.reject(lineNumber, form.getEmail(), violations);
+            } else if (!seenEmails.add(User.normalizeEmail(form.getEmail()))) {
+                progress.reject(lineNumber, form.getEmail(), "Duplicate email in import");
+            } else {
+                batch.add(new ImportRow(lineNumber, form));
+                if (batch.size() == batchSize) {
+                    insertBatch(batch, progress);
+                }
+            }
+        }
+        insertBatch(batch, progress);
+
+        // rows rejected by the batch checks are reported after the ones rejected while reading
+        progress.errors.sort(Comparator.comparingLong(RowError::line));
+        return new ImportReport(progress.imported, progress.failed, progress.errors);
+    }
+
+    public void exportUsers(OutputStream body, BulkFormat format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8));
+        if (format == BulkFormat.CSV) {
+            writer.write(String.join(",", EXPORT_COLUMNS));
+            writer.write('\n');
+        }
+
+        // some drivers (PostgreSQL) only honour the fetch size inside a transaction
+        readTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_USERS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(exportFetchSize);
+            return statement;
+        }, (ResultSet rs) -> {
+            ExportedUser user = new ExportedUser(rs.getString("id"), rs.getString("full_name"), rs.getString("email"),
+                    rs.getString("phone_number"), rs.getString("address"));
+            try {
+                writer.write(format == BulkFormat.CSV ? csvLine(user) : objectMapper.writeValueAsString(user));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        writer.flush();
+    }
+
+    private void insertBatch(List<ImportRow> batch, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Set<String> taken = new HashSet<>(userRepo.findExistingEmails(batch.stream().map(row -> User.normalizeEmail(row.form().getEmail())).toList()));
+        List<ImportRow> rows = new ArrayList<>(batch.size());
+        for (ImportRow row : batch) {
+            if (taken.contains(User.normalizeEmail(row.form().getEmail()))) {
+                progress.reject(row.line(), row.form().getEmail(), "User with the same email id exists");
+            } else {
+                rows.add(row);
+            }
+        }
+        batch.clear();
+
+        List<CompletableFuture<String>> hashes = rows.stream()
+                .map(row -> CompletableFuture.supplyAsync(
+                        () -> authMetrics.passwordEncode().record(() -> passwordEncoder.encode(row.form().getPassword())), hashingPool))
+                .toList();
+        // rows whose password was hashed, and their insert values at the same index
+        List<ImportRow> hashed = new ArrayList<>(rows.size());
+        List<Object[]> values = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            SignUpForm form = rows.get(i).form();
+            String hash;
+            try {
+                hash = hashes.get(i).join();
+            } catch (CompletionException e) {
+                progress.reject(rows.get(i).line(), form.getEmail(), "Password could not be hashed");
+                continue;
+            }
+            hashed.add(rows.get(i));
+            values.add(new Object[]{UUID.randomUUID().toString(), form.getFullName(), form.getEmail(), User.normalizeEmail(form.getEmail()), hash,
+                    form.getPhoneNumber(), form.getAddress()});
+        }
+        if (hashed.isEmpty()) {
+            return;
+        }
+
+        try {
+            writeTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_USER, values));
+            progress.imported += hashed.size();
+        } catch (DataIntegrityViolationException e) {
+            // a sign-up took one of the emails after the check, or a row broke a column constraint the form does not
+            // check; the batch rolled back, so retry row by row and report the rows the database refuses
+            for (int i = 0; i < hashed.size(); i++) {
+                try {
+                    jdbcTemplate.update(INSERT_USER, values.get(i));
+                    progress.imported++;
+                } catch (DuplicateKeyException duplicate) {
+                    progress.reject(hashed.get(i).line(), hashed.get(i).form().getEmail(), "User with the same email id exists");
+                } catch (DataIntegrityViolationException violation) {
+                    progress.reject(hashed.get(i).line(), hashed.get(i).form().getEmail(), "Rejected by the database");
+                }
+            }
+        }
+    }
+
+    private String violations(SignUpForm form) {
+        Set<ConstraintViolation<SignUpForm>> violations = validator.validate(form);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static List<String> csvHeader(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        List<String> header = line == null ? List.of() : csvFields(line);
+        if (!header.containsAll(IMPORT_COLUMNS)) {
+            throw new IllegalArgumentException("CSV header must contain " + String.join(", ", IMPORT_COLUMNS));
+        }
+        return header;
+    }
+
+    private static SignUpForm csvRow(List<String> header, String line) {
+        List<String> fields = csvFields(line);
+        if (fields.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " fields");
+        }
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            values.put(header.get(i), fields.get(i));
+        }
+        return SignUpForm.builder()
+                .fullName(values.get("fullName"))
+                .email(values.get("email"))
+                .password(values.get("password"))
+                .phoneNumber(values.get("phoneNumber"))
+                .address(values.get("address"))
+                .build();
+    }
+
+    // RFC 4180 fields on a single line: commas separate, quotes enclose, doubled quotes escape
+    private static List<String> csvFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String csvLine(ExportedUser user) {
+        return String.join(",", csvField(user.id()), csvField(user.fullName()), csvField(user.email()),
+                csvField(user.phoneNumber()), csvField(user.address()));
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private class Progress {
+        private long imported;
+        private long failed;
+        private final List<RowError> errors = new ArrayList<>();
+
+        void reject(long line, String email, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(line, email, message));
+            }
+        }
+    }
+}
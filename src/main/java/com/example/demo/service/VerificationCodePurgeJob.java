@@ -0,0 +1,72 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes expired verification codes in bounded chunks, so one run never holds a long transaction or locks
+ * the whole table. Publishes the number of stored codes and the purge throughput.
+ */
+@Slf4j
+@Component
+public class VerificationCodePurgeJob {
+    @Autowired
+    private VerificationCodeStore verificationCodeStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.verification-code.purge-batch-size:500}")
+    private int batchSize;
+
+    @Value("${auth.verification-code.purge-max-batches:100}")
+    private int maxBatches;
+
+    // refreshed by each run rather than counted on every scrape
+    private final AtomicLong storedCodes = new AtomicLong();
+    private Counter purgedCounter;
+    private Timer purgeTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("auth.verification_codes.stored", storedCodes, AtomicLong::get)
+                .description("Verification codes held by the store after the last purge")
+                .register(meterRegistry);
+        purgedCounter = Counter.builder("auth.verification_codes.purged")
+                .description("Expired verification codes removed by the purge job")
+                .register(meterRegistry);
+        purgeTimer = Timer.builder("auth.verification_codes.purge")
+                .description("Duration of a purge run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.verification-code.purge-interval:PT10M}", initialDelayString = "${auth.verification-code.purge-interval:PT10M}")
+    public void purge() {
+        purgeTimer.record(() -> {
+            int purged = 0;
+            for (int batch = 0; batch < maxBatches; batch++) {
+                int removed = verificationCodeStore.purgeExpired(batchSize);
+                purged += removed;
+                if (removed < batchSize) {
+                    break;
+                }
+            }
+
+            purgedCounter.increment(purged);
+            storedCodes.set(verificationCodeStore.size());
+            if (purged > 0) {
+                log.info("Purged {} expired verification codes", purged);
+            }
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.service;
+
+import com.example.demo.enums.CodeType;
+import com.example.demo.model.User;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Where issued verification codes live until they are used or expire. Selected with
+ * {@code auth.verification-code.store}: {@code jpa} (default) keeps them in the database, {@code memory} keeps them
+ * in an expiring in-process map and loses them on restart.
+ */
+public interface VerificationCodeStore {
+
+    void save(User user, String code, CodeType type, Instant expiresAt);
+
+    /**
+     * The owner of an unexpired code of the given type, if the code matches.
+     */
+    Optional<User> findValid(String email, String code, CodeType type);
+
+    /**
+     * Removes the code if it is still stored and unexpired, and returns whether it was. Of concurrent callers
+     * presenting the same code, only one gets {@code true}.
+     */
+    boolean consume(User user, String code, CodeType type);
+
+    void invalidateAll(User user, CodeType type);
+
+    /**
+     * Removes up to {@code batchSize} expired codes and returns how many were removed. Stores that expire codes
+     * in memory may ignore {@code batchSize}: they have no table to keep small deletes on, so they drop every expired
+     * code at once and report them all.
+     */
+    int purgeExpired(int batchSize);
+
+    long size();
+}
@@ -1,37 +1,64 @@
 package com.example.demo.service.impl;
 
+import com.example.demo.cache.RevokedTokenDenylist;
+import com.example.demo.config.JwtAuthenticationFilter;
+import com.example.demo.enums.AttemptScope;
+import com.example.demo.enums.AuthFailure;
 import com.example.demo.enums.CodeType;
+import com.example.demo.enums.Role;
+import com.example.demo.exception.AccountLockedException;
 import com.example.demo.forms.ForgotPass;
 import com.example.demo.forms.LoginForm;
 import com.example.demo.forms.ResetPasswordForm;
 import com.example.demo.forms.SignUpForm;
 import com.example.demo.model.User;
-import com.example.demo.model.VerificationCode;
 import com.example.demo.repository.UserRepo;
-import com.example.demo.repository.VerificationCodeRepo;
 import com.example.demo.service.AuthService;
+import com.example.demo.service.LoginAttemptService;
+import com.example.demo.service.RefreshTokenService;
+import com.example.demo.service.VerificationCodeStore;
+import com.example.demo.util.AuthMetrics;
+import com.example.demo.util.AuthRateLimits;
 import com.example.demo.util.JwtUtil;
 import com.example.demo.util.MailSenderUtil;
+import com.example.demo.util.PasswordHasher;
 import com.example.demo.util.ResetCodeUtil;
+import com.example.demo.util.VerifiedClaims;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.util.WebUtils;
 
-import java.util.Objects;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class AuthServiceImpl implements AuthService {
+    private static final String ACCESS_TOKEN_COOKIE = "jwtToken";
+    private static final String REFRESH_TOKEN_COOKIE = "refreshToken";
+    // the refresh token is only sent to the auth endpoints, never with ordinary API calls
+    private static final String REFRESH_TOKEN_PATH = "/api/auth";
+
     @Autowired
     private UserRepo userRepo;
 
     @Autowired
-    private VerificationCodeRepo verificationCodeRepo;
+    private VerificationCodeStore verificationCodeStore;
 
     @Autowired
     private MailSenderUtil mailSenderUtil;
@@ -40,58 +67,163 @@ public class AuthServiceImpl implements AuthService {
     private ResetCodeUtil resetCodeUtil;
 
     @Autowired
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private AuthRateLimits authRateLimits;
+
+    @Autowired
+    private LoginAttemptService loginAttemptService;
+
+    @Autowired
+    private RevokedTokenDenylist revokedTokenDenylist;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${auth.verification-code.ttl:PT15M}")
+    private Duration verificationCodeTtl;
+
+    // continuations of the async variants run here so the hashing pool only ever does hashing
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor taskExecutor;
+
     @Override
     public ResponseEntity<?> signUp(SignUpForm user) {
+        // duplicates are refused before any BCrypt work is spent on them
+        if (userRepo.existsByEmail(user.getEmail())) {
+            return userExists();
+        }
+
+        return createUser(user, passwordHasher.encode(user.getPassword()));
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<?>> signUpAsync(SignUpForm user) {
+        if (userRepo.existsByEmail(user.getEmail())) {
+            return CompletableFuture.completedFuture(userExists());
+        }
+
+        return passwordHasher.encodeAsync(user.getPassword())
+                .thenApplyAsync(encodedPassword -> createUser(user, encodedPassword), taskExecutor);
+    }
+
+    private ResponseEntity<?> createUser(SignUpForm user, String encodedPassword) {
         User newUser = User.builder()
                 .fullName(user.getFullName())
                 .email(user.getEmail())
-                .password(passwordEncoder.encode(user.getPassword()))
+                .password(encodedPassword)
                 .phoneNumber(user.getPhoneNumber())
                 .address(user.getAddress())
+                .role(Role.USER)
                 .build();
 
-        Optional<User> oldUser = userRepo.findByEmail(user.getEmail());
-        if (oldUser.isPresent()) {
-            return new ResponseEntity<>("User with the same email id exists", HttpStatus.CONFLICT);
+        // the unique constraint on email settles concurrent sign-ups that both passed the existence check
+        try {
+            User userInDb = userRepo.saveAndFlush(newUser);
+            return new ResponseEntity<>(userInDb, HttpStatus.CREATED);
+        } catch (DataIntegrityViolationException e) {
+            return userExists();
         }
+    }
 
-        User userInDb = userRepo.save(newUser);
-
-        return new ResponseEntity<>(userInDb, HttpStatus.CREATED);
+    private ResponseEntity<?> userExists() {
+        authMetrics.failure(AuthFailure.DUPLICATE_EMAIL);
+        return new ResponseEntity<>("User with the same email id exists", HttpStatus.CONFLICT);
     }
 
     @Override
     public ResponseEntity<?> loginUser(LoginForm user, HttpServletResponse response) {
+        authRateLimits.checkAccount(user.getEmail());
+        loginAttemptService.checkNotLocked(AttemptScope.LOGIN, user.getEmail());
+
         Optional<User> existingUser = userRepo.findByEmail(user.getEmail());
 
         if (existingUser.isEmpty()) {
-            return new ResponseEntity<>("User not found" ,HttpStatus.NOT_FOUND);
+            return loginUserNotFound();
+        }
+        checkNotLocked(existingUser.get());
+
+        boolean matches = passwordHasher.matches(user.getPassword(), existingUser.get().getPassword());
+        return completeLogin(existingUser.get(), user.getPassword(), matches, response);
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<?>> loginUserAsync(LoginForm user, HttpServletResponse response) {
+        authRateLimits.checkAccount(user.getEmail());
+        loginAttemptService.checkNotLocked(AttemptScope.LOGIN, user.getEmail());
+
+        Optional<User> existingUser = userRepo.findByEmail(user.getEmail());
+
+        if (existingUser.isEmpty()) {
+            return CompletableFuture.completedFuture(loginUserNotFound());
         }
+        checkNotLocked(existingUser.get());
 
-        if(passwordEncoder.matches(user.getPassword(), existingUser.get().getPassword())) {
-            String token = jwtUtil.generateToken(user.getEmail());
+        return passwordHasher.matchesAsync(user.getPassword(), existingUser.get().getPassword())
+                .thenApplyAsync(matches -> completeLogin(existingUser.get(), user.getPassword(), matches, response), taskExecutor);
+    }
 
-            Cookie cookie = new Cookie("jwtToken", token);
-            cookie.setHttpOnly(true);
-            cookie.setSecure(true);
-            cookie.setPath("/");
-            cookie.setMaxAge(24 * 60 * 60); // 1 day
+    private ResponseEntity<?> loginUserNotFound() {
+        authMetrics.failure(AuthFailure.USER_NOT_FOUND);
+        return new ResponseEntity<>("User not found" ,HttpStatus.NOT_FOUND);
+    }
 
-            response.addCookie(cookie);
+    // the lock on the user row is what other nodes see when the attempt counters are kept in memory
+    private void checkNotLocked(User user) {
+        if (!user.isAccountNonLocked()) {
+            authMetrics.failure(AuthFailure.ACCOUNT_LOCKED);
+            throw new AccountLockedException(user.getLockedUntil());
+        }
+    }
 
-            return new ResponseEntity<>(existingUser.get(), HttpStatus.OK);
+    private ResponseEntity<?> completeLogin(User user, String rawPassword, boolean passwordMatches, HttpServletResponse response) {
+        if(passwordMatches) {
+            loginAttemptService.recordSuccess(AttemptScope.LOGIN, user.getEmail());
+            boolean changed = false;
+
+            // the raw password is only available here, so stale hashes are replaced transparently
+            if (passwordHasher.upgradeEncoding(user.getPassword())) {
+                user.setPassword(passwordHasher.encode(rawPassword));
+                changed = true;
+            }
+            if (user.getLockedUntil() != null) {
+                user.setLockedUntil(null);
+                changed = true;
+            }
+            if (changed) {
+                userRepo.save(user);
+            }
+
+            issueTokens(user, refreshTokenService.issue(user), response);
+
+            return new ResponseEntity<>(user, HttpStatus.OK);
         }
 
+        loginAttemptService.recordFailure(AttemptScope.LOGIN, user.getEmail()).ifPresent(lockedUntil -> {
+            user.setLockedUntil(lockedUntil);
+            userRepo.save(user);
+        });
+
+        authMetrics.failure(AuthFailure.BAD_PASSWORD);
         return new ResponseEntity<>("Password is incorrect", HttpStatus.BAD_REQUEST);
     }
 
     @Override
+    @Transactional
     public ResponseEntity<?> forgotPassword(ForgotPass forgotPass) {
+        authRateLimits.checkAccount(forgotPass.getEmail());
+
         Optional<User> user = userRepo.findByEmail(forgotPass.getEmail());
 
         if(user.isEmpty()) {
@@ -100,62 +232,139 @@ public class AuthServiceImpl implements AuthService {
 
         String code = resetCodeUtil.generateResetCode();
 
-        mailSenderUtil.sendVerificationMail(forgotPass.getEmail(), code);
-
-        VerificationCode verificationCode = new VerificationCode();
-        verificationCode.setCode(code);
-        verificationCode.setType(CodeType.RESET_PASSWORD);
-        verificationCode.setUser(user.get());
+        verificationCodeStore.save(user.get(), code, CodeType.RESET_PASSWORD, Instant.now().plus(verificationCodeTtl));
 
-        verificationCodeRepo.save(verificationCode);
+        // committed together with the code; the outbox relay sends it, so SMTP never runs on this request
+        mailSenderUtil.queueVerificationMail(forgotPass.getEmail(), code);
 
         return new ResponseEntity<>("Code successfully sent to the email", HttpStatus.OK);
     }
 
     @Override
     public ResponseEntity<?> resetPassword(ResetPasswordForm resetPasswordForm) {
-        Optional<User> existingUser = userRepo.findByEmail(resetPasswordForm.getEmail());
+        authRateLimits.checkAccount(resetPasswordForm.getEmail());
+        loginAttemptService.checkNotLocked(AttemptScope.RESET_CODE, resetPasswordForm.getEmail());
 
-        if(existingUser.isEmpty()) {
-            return new ResponseEntity<>("User not found" ,HttpStatus.NOT_FOUND);
+        Optional<User> user = findResetCodeOwner(resetPasswordForm);
+
+        if(user.isEmpty()) {
+            return resetCodeNotFound();
         }
 
-        Optional<VerificationCode> verificationCode = verificationCodeRepo.findByUser(existingUser.get());
+        String encodedPassword = passwordHasher.encode(resetPasswordForm.getNewPassword());
+        return completeReset(user.get(), resetPasswordForm.getVerificationCode(), encodedPassword);
+    }
 
-        if(verificationCode.isEmpty()) {
-            return new ResponseEntity<>("Verification code not found" ,HttpStatus.NOT_FOUND);
-        }
+    @Override
+    public CompletableFuture<ResponseEntity<?>> resetPasswordAsync(ResetPasswordForm resetPasswordForm) {
+        authRateLimits.checkAccount(resetPasswordForm.getEmail());
+        loginAttemptService.checkNotLocked(AttemptScope.RESET_CODE, resetPasswordForm.getEmail());
 
-        if(Objects.equals(verificationCode.get().getCode(), resetPasswordForm.getVerificationCode())) {
-            existingUser.get().setPassword(passwordEncoder.encode(resetPasswordForm.getNewPassword()));
+        Optional<User> user = findResetCodeOwner(resetPasswordForm);
 
-            userRepo.save(existingUser.get());
-            verificationCodeRepo.delete(verificationCode.get());
+        if(user.isEmpty()) {
+            return CompletableFuture.completedFuture(resetCodeNotFound());
+        }
+
+        return passwordHasher.encodeAsync(resetPasswordForm.getNewPassword())
+                .thenApplyAsync(encodedPassword -> completeReset(user.get(), resetPasswordForm.getVerificationCode(), encodedPassword), taskExecutor);
+    }
 
-            return new ResponseEntity<> ("Password successfully changed", HttpStatus.OK);
+    private Optional<User> findResetCodeOwner(ResetPasswordForm resetPasswordForm) {
+        Optional<User> user = verificationCodeStore.findValid(resetPasswordForm.getEmail(), resetPasswordForm.getVerificationCode(), CodeType.RESET_PASSWORD);
+        if (user.isEmpty()) {
+            loginAttemptService.recordFailure(AttemptScope.RESET_CODE, resetPasswordForm.getEmail());
         }
+        return user;
+    }
 
-        return new ResponseEntity<>("Verification code is incorrect" ,HttpStatus.BAD_REQUEST);
+    private ResponseEntity<?> resetCodeNotFound() {
+        authMetrics.failure(AuthFailure.INVALID_RESET_CODE);
+        return new ResponseEntity<>("Verification code not found or expired" ,HttpStatus.NOT_FOUND);
     }
 
-    @Override
-    public ResponseEntity<?> logout(HttpServletResponse response) {
-        Cookie cookie = new Cookie("jwtToken", null);
+    // one transaction, so the code is only used up if the new password is stored, and a concurrent reset with the same
+    // code finds it gone
+    private ResponseEntity<?> completeReset(User user, String code, String encodedPassword) {
+        return transactionTemplate.execute(status -> {
+            if (!verificationCodeStore.consume(user, code, CodeType.RESET_PASSWORD)) {
+                return resetCodeNotFound();
+            }
+            return changePassword(user, encodedPassword);
+        });
+    }
+
+    private ResponseEntity<?> changePassword(User user, String encodedPassword) {
+        user.setPassword(encodedPassword);
+        // proving control of the mailbox also lifts a login lockout
+        user.setLockedUntil(null);
+        // and signs out every session that used the old password
+        user.setTokensValidAfter(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        refreshTokenService.revokeAll(user);
+        loginAttemptService.recordSuccess(AttemptScope.RESET_CODE, user.getEmail());
+        loginAttemptService.recordSuccess(AttemptScope.LOGIN, user.getEmail());
+
+        userRepo.save(user);
+        verificationCodeStore.invalidateAll(user, CodeType.RESET_PASSWORD);
+
+        return new ResponseEntity<> ("Password successfully changed", HttpStatus.OK);
+    }
+
+    private void issueTokens(User user, String refreshToken, HttpServletResponse response) {
+        addCookie(response, ACCESS_TOKEN_COOKIE, jwtUtil.generateToken(user), "/", jwtUtil.getAccessTokenTtl());
+        addCookie(response, REFRESH_TOKEN_COOKIE, refreshToken, REFRESH_TOKEN_PATH, refreshTokenService.getTtl());
+    }
+
+    private static void addCookie(HttpServletResponse response, String name, String value, String path, Duration maxAge) {
+        Cookie cookie = new Cookie(name, value);
         cookie.setHttpOnly(true);
         cookie.setSecure(true);
-        cookie.setPath("/");
-        cookie.setMaxAge(0);
+        cookie.setPath(path);
+        cookie.setMaxAge((int) maxAge.toSeconds());
 
         response.addCookie(cookie);
+    }
+
+    @Override
+    public ResponseEntity<?> refresh(String refreshToken, HttpServletResponse response) {
+        Optional<RefreshTokenService.Rotation> rotation = refreshTokenService.rotate(refreshToken);
+
+        if (rotation.isEmpty()) {
+            authMetrics.failure(AuthFailure.INVALID_REFRESH_TOKEN);
+            clearCookies(response);
+            return new ResponseEntity<>("Refresh token is invalid or expired", HttpStatus.UNAUTHORIZED);
+        }
+
+        issueTokens(rotation.get().user(), rotation.get().refreshToken(), response);
+        return new ResponseEntity<>("Token refreshed", HttpStatus.OK);
+    }
+
+    @Override
+    public ResponseEntity<?> logout(HttpServletRequest request, HttpServletResponse response) {
+        // the cookie alone would leave a copied token valid until it expires
+        if (request.getAttribute(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE) instanceof VerifiedClaims claims) {
+            revokedTokenDenylist.revoke(claims.tokenId(), claims.expiresAt());
+        }
+        Cookie refreshCookie = WebUtils.getCookie(request, REFRESH_TOKEN_COOKIE);
+        if (refreshCookie != null) {
+            refreshTokenService.revokeFamily(refreshCookie.getValue());
+        }
+
+        clearCookies(response);
 
         return new ResponseEntity<>("Logout successfully", HttpStatus.OK);
     }
 
+    private static void clearCookies(HttpServletResponse response) {
+        addCookie(response, ACCESS_TOKEN_COOKIE, null, "/", Duration.ZERO);
+        addCookie(response, REFRESH_TOKEN_COOKIE, null, REFRESH_TOKEN_PATH, Duration.ZERO);
+    }
+
     @Override
     public ResponseEntity<?> getProfile(HttpServletRequest request) {
-        String email = (String) request.getAttribute("email");
-        Optional<User> user = userRepo.findByEmail(email);
-        if(user.isEmpty()) {
+        // JwtAuthenticationFilter has already resolved the user, from the cache or from the token's profile claims
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if(authentication == null || !(authentication.getPrincipal() instanceof User user)) {
             return new ResponseEntity<>("User not found" ,HttpStatus.NOT_FOUND);
         }
 
@@ -0,0 +1,94 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.service.LockoutPolicy;
+import com.example.demo.service.LoginAttemptStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Keeps the last {@code maxFailures} failure times of each key in a ring, which makes the window exact: the key
+ * locks when the oldest of them is still inside the window. Entries idle for longer than the maximum lockout
+ * are dropped, which also forgets the lockout count.
+ */
+@Service
+@ConditionalOnProperty(name = "auth.lockout.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryLoginAttemptStore implements LoginAttemptStore {
+    @Value("${auth.lockout.max-tracked-keys:100000}")
+    private long maxTrackedKeys;
+
+    @Value("${auth.lockout.max-duration:PT1H}")
+    private Duration maxLockout;
+
+    private Cache<String, Attempts> attempts;
+
+    @PostConstruct
+    void init() {
+        attempts = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(maxLockout.multipliedBy(2))
+                .build();
+    }
+
+    @Override
+    public Optional<Instant> lockedUntil(String key) {
+        Attempts keyAttempts = attempts.getIfPresent(key);
+        return keyAttempts == null ? Optional.empty() : keyAttempts.lockedUntil(Instant.now());
+    }
+
+    @Override
+    public Optional<Instant> recordFailure(String key, LockoutPolicy policy) {
+        Instant now = Instant.now();
+        // compute is atomic per key, so the ring is only ever touched by one thread at a time
+        Attempts keyAttempts = attempts.asMap().compute(key, (k, existing) -> {
+            Attempts updated = existing != null && existing.failures.length == policy.maxFailures()
+                    ? existing
+                    : new Attempts(policy.maxFailures());
+            updated.recordFailure(now, policy);
+            return updated;
+        });
+        return keyAttempts.lockedUntil(now);
+    }
+
+    @Override
+    public void reset(String key) {
+        attempts.invalidate(key);
+    }
+
+    private static final class Attempts {
+        private final Instant[] failures;
+        private int next;
+        private int lockouts;
+        private volatile Instant lockedUntil;
+
+        Attempts(int maxFailures) {
+            this.failures = new Instant[maxFailures];
+        }
+
+        void recordFailure(Instant now, LockoutPolicy policy) {
+            failures[next] = now;
+            next = (next + 1) % failures.length;
+
+            // failures[next] is now the oldest of the last maxFailures failures
+            Instant oldest = failures[next];
+            if (oldest != null && oldest.isAfter(now.minus(policy.window()))) {
+                lockouts++;
+                lockedUntil = now.plus(policy.lockoutFor(lockouts));
+                Arrays.fill(failures, null);
+            }
+        }
+
+        Optional<Instant> lockedUntil(Instant now) {
+            Instant until = lockedUntil;
+            return until != null && until.isAfter(now) ? Optional.of(until) : Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.enums.CodeType;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepo;
+import com.example.demo.service.VerificationCodeStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps codes in a Caffeine map whose timer wheel expires each user's entry when its last code runs out,
+ * so nothing touches the database. Codes are lost on restart and are not shared between nodes.
+ */
+@Service
+@ConditionalOnProperty(name = "auth.verification-code.store", havingValue = "memory")
+public class InMemoryVerificationCodeStore implements VerificationCodeStore {
+    @Autowired
+    private UserRepo userRepo;
+
+    private final AtomicInteger expiredSinceLastPurge = new AtomicInteger();
+
+    // per user and type: code -> expiry; a user rarely holds more than a handful of codes
+    private final Cache<CodeKey, Map<String, Instant>> codes = Caffeine.newBuilder()
+            .expireAfter(new UntilLastCodeExpires())
+            // listeners run on the thread doing the maintenance, so cleanUp() has counted every expiry when it returns
+            .executor(Runnable::run)
+            .removalListener((CodeKey key, Map<String, Instant> value, RemovalCause cause) -> {
+                if (cause == RemovalCause.EXPIRED) {
+                    expiredSinceLastPurge.addAndGet(value == null ? 1 : value.size());
+                }
+            })
+            .build();
+
+    @Override
+    public void save(User user, String code, CodeType type, Instant expiresAt) {
+        codes.asMap().compute(new CodeKey(user.getEmail(), type), (key, existing) -> {
+            Map<String, Instant> updated = new HashMap<>();
+            Instant now = Instant.now();
+            if (existing != null) {
+                existing.forEach((existingCode, existingExpiry) -> {
+                    if (existingExpiry.isAfter(now)) {
+                        updated.put(existingCode, existingExpiry);
+                    }
+                });
+            }
+            updated.put(code, expiresAt);
+            return Map.copyOf(updated);
+        });
+    }
+
+    @Override
+    public Optional<User> findValid(String email, String code, CodeType type) {
+        Map<String, Instant> userCodes = codes.getIfPresent(new CodeKey(email, type));
+        Instant expiresAt = userCodes == null ? null : userCodes.get(code);
+        if (expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return Optional.empty();
+        }
+
+        return userRepo.findByEmail(email);
+    }
+
+    @Override
+    public boolean consume(User user, String code, CodeType type) {
+        boolean[] consumed = {false};
+        // compute runs atomically per key, so only one caller finds the code still there
+        codes.asMap().computeIfPresent(new CodeKey(user.getEmail(), type), (key, existing) -> {
+            Instant expiresAt = existing.get(code);
+            if (expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+                return existing;
+            }
+            consumed[0] = true;
+            Map<String, Instant> remaining = new HashMap<>(existing);
+            remaining.remove(code);
+            return remaining.isEmpty() ? null : Map.copyOf(remaining);
+        });
+        return consumed[0];
+    }
+
+    @Override
+    public void invalidateAll(User user, CodeType type) {
+        codes.invalidate(new CodeKey(user.getEmail(), type));
+    }
+
+    // batchSize is ignored: Caffeine expires every overdue entry in one pass, and nothing holds a lock meanwhile
+    @Override
+    public int purgeExpired(int batchSize) {
+        codes.cleanUp();
+        return expiredSinceLastPurge.getAndSet(0);
+    }
+
+    @Override
+    public long size() {
+        return codes.asMap().values().stream().mapToLong(Map::size).sum();
+    }
+
+    // keyed by the normalized email, so a code requested as Foo@x.com is found when entered as foo@x.com
+    private record CodeKey(String email, CodeType type) {
+        CodeKey {
+            email = User.normalizeEmail(Objects.requireNonNull(email));
+        }
+    }
+
+    private static class UntilLastCodeExpires implements Expiry<CodeKey, Map<String, Instant>> {
+        @Override
+        public long expireAfterCreate(CodeKey key, Map<String, Instant> userCodes, long currentTime) {
+            Instant lastExpiry = userCodes.values().stream().max(Instant::compareTo).orElse(Instant.now());
+            return Math.max(0, Duration.between(Instant.now(), lastExpiry).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(CodeKey key, Map<String, Instant> userCodes, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, userCodes, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(CodeKey key, Map<String, Instant> userCodes, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
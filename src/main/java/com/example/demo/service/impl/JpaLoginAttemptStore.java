@@ -0,0 +1,70 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.model.LoginAttempt;
+import com.example.demo.repository.LoginAttemptRepo;
+import com.example.demo.service.LockoutPolicy;
+import com.example.demo.service.LoginAttemptStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Shares counters between nodes. A row-level lock serialises concurrent failures for the same key; the window
+ * is fixed (it restarts with the first failure after it ends) to keep that to one row per key.
+ */
+@Service
+@ConditionalOnProperty(name = "auth.lockout.store", havingValue = "jpa")
+public class JpaLoginAttemptStore implements LoginAttemptStore {
+    @Autowired
+    private LoginAttemptRepo loginAttemptRepo;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public Optional<Instant> lockedUntil(String key) {
+        return loginAttemptRepo.findLockedUntil(key, Instant.now());
+    }
+
+    @Override
+    public Optional<Instant> recordFailure(String key, LockoutPolicy policy) {
+        try {
+            return transactionTemplate.execute(status -> recordFailureLocked(key, policy));
+        } catch (DataIntegrityViolationException e) {
+            // another node inserted the first row for this key; it exists now, so the lock can be taken
+            return transactionTemplate.execute(status -> recordFailureLocked(key, policy));
+        }
+    }
+
+    private Optional<Instant> recordFailureLocked(String key, LockoutPolicy policy) {
+        Instant now = Instant.now();
+        LoginAttempt attempt = loginAttemptRepo.findForUpdate(key)
+                .orElseGet(() -> LoginAttempt.builder().id(key).build());
+
+        if (attempt.getWindowStart() == null || attempt.getWindowStart().isBefore(now.minus(policy.window()))) {
+            attempt.setWindowStart(now);
+            attempt.setFailures(0);
+        }
+        attempt.setFailures(attempt.getFailures() + 1);
+
+        if (attempt.getFailures() >= policy.maxFailures()) {
+            attempt.setLockouts(attempt.getLockouts() + 1);
+            attempt.setLockedUntil(now.plus(policy.lockoutFor(attempt.getLockouts())));
+            attempt.setFailures(0);
+            attempt.setWindowStart(null);
+        }
+
+        loginAttemptRepo.saveAndFlush(attempt);
+        return Optional.ofNullable(attempt.getLockedUntil()).filter(until -> until.isAfter(now));
+    }
+
+    @Override
+    public void reset(String key) {
+        loginAttemptRepo.deleteByIdDirectly(key);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.enums.CodeType;
+import com.example.demo.model.User;
+import com.example.demo.model.VerificationCode;
+import com.example.demo.repository.VerificationCodeRepo;
+import com.example.demo.service.VerificationCodeStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+@Service
+@ConditionalOnProperty(name = "auth.verification-code.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaVerificationCodeStore implements VerificationCodeStore {
+    @Autowired
+    private VerificationCodeRepo verificationCodeRepo;
+
+    @Override
+    public void save(User user, String code, CodeType type, Instant expiresAt) {
+        VerificationCode verificationCode = new VerificationCode();
+        verificationCode.setCode(code);
+        verificationCode.setType(type);
+        verificationCode.setUser(user);
+        verificationCode.setCreatedAt(Instant.now());
+        verificationCode.setExpiresAt(expiresAt);
+
+        verificationCodeRepo.save(verificationCode);
+    }
+
+    @Override
+    public Optional<User> findValid(String email, String code, CodeType type) {
+        return verificationCodeRepo.findNewestValid(email, code, type)
+                // exact comparison in case the database collation is case-insensitive
+                .filter(verificationCode -> Objects.equals(verificationCode.getCode(), code))
+                .map(VerificationCode::getUser);
+    }
+
+    @Override
+    public boolean consume(User user, String code, CodeType type) {
+        return verificationCodeRepo.deleteValid(user, code, type, Instant.now()) > 0;
+    }
+
+    @Override
+    public void invalidateAll(User user, CodeType type) {
+        verificationCodeRepo.deleteByUserAndType(user, type);
+    }
+
+    @Override
+    public int purgeExpired(int batchSize) {
+        List<String> expiredIds = verificationCodeRepo.findExpiredIds(Instant.now(), Limit.of(batchSize));
+        if (!expiredIds.isEmpty()) {
+            verificationCodeRepo.deleteAllByIdInBatch(expiredIds);
+        }
+        return expiredIds.size();
+    }
+
+    @Override
+    public long size() {
+        return verificationCodeRepo.count();
+    }
+}
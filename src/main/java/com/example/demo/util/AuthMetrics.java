@@ -0,0 +1,105 @@
+package com.example.demo.util;
+
+import com.example.demo.enums.AuthFailure;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The auth-specific meters, created once so the hot paths only record. Request latency per endpoint
+ * ({@code http.server.requests}), repository calls ({@code spring.data.repository.invocations}), Hikari and the
+ * application task executor are instrumented by Spring Boot itself.
+ */
+@Component
+public class AuthMetrics {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer jwtVerify;
+    private Timer passwordEncode;
+    private Timer passwordMatch;
+    private Timer mailSent;
+    private Timer mailFailed;
+    private final Map<AuthFailure, Counter> failures = new EnumMap<>(AuthFailure.class);
+
+    @PostConstruct
+    void init() {
+        jwtVerify = timer("auth.jwt.verify", "Token signature and expiry checks that missed the verified-token cache");
+        passwordEncode = taggedTimer("auth.password.hash", "Password hashing, excluding the wait for a hasher thread", "operation", "encode");
+        passwordMatch = taggedTimer("auth.password.hash", "Password hashing, excluding the wait for a hasher thread", "operation", "match");
+        mailSent = taggedTimer("auth.mail.send", "SMTP delivery of one batch of messages", "outcome", "success");
+        mailFailed = taggedTimer("auth.mail.send", "SMTP delivery of one batch of messages", "outcome", "failure");
+
+        for (AuthFailure reason : AuthFailure.values()) {
+            failures.put(reason, Counter.builder("auth.failures")
+                    .description("Refused authentication attempts")
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    public Timer jwtVerify() {
+        return jwtVerify;
+    }
+
+    public Timer passwordEncode() {
+        return passwordEncode;
+    }
+
+    public Timer passwordMatch() {
+        return passwordMatch;
+    }
+
+    public Timer.Sample startMail() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Stops a sample taken with {@link #startMail()}; one SMTP session may carry a batch of messages.
+     */
+    public void mailSent(Timer.Sample sample, boolean success) {
+        sample.stop(success ? mailSent : mailFailed);
+    }
+
+    public void failure(AuthFailure reason) {
+        failures.get(reason).increment();
+    }
+
+    /**
+     * Publishes pool size, active threads and queue depth of an executor as {@code executor.*} tagged with its name.
+     */
+    public void monitor(ExecutorService executor, String name) {
+        new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public <T> void gauge(String name, String description, T target, ToDoubleFunction<T> value) {
+        Gauge.builder(name, target, value)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    private Timer timer(String name, String description) {
+        return taggedTimer(name, description, null, null);
+    }
+
+    private Timer taggedTimer(String name, String description, String tagKey, String tagValue) {
+        Timer.Builder builder = Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram();
+        if (tagKey != null) {
+            builder.tag(tagKey, tagValue);
+        }
+        return builder.register(meterRegistry);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.util;
+
+import com.example.demo.enums.AuthFailure;
+import com.example.demo.exception.RateLimitExceededException;
+import com.example.demo.model.User;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request budgets for the public auth endpoints: one bucket per client IP, checked by
+ * {@link com.example.demo.config.RateLimitFilter} before anything else runs, and one per account email, checked by
+ * the service before any password is hashed or mail is queued. The account limit slows credential stuffing that
+ * rotates IPs against the same user.
+ */
+@Component
+public class AuthRateLimits {
+    public static final String LIMIT_EXCEEDED_MESSAGE = "Too many requests, please try again later";
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @Value("${auth.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.rate-limit.ip.capacity:30}")
+    private int ipCapacity;
+
+    @Value("${auth.rate-limit.ip.refill-interval:PT0.5S}")
+    private Duration ipRefillInterval;
+
+    @Value("${auth.rate-limit.account.capacity:10}")
+    private int accountCapacity;
+
+    @Value("${auth.rate-limit.account.refill-interval:PT30S}")
+    private Duration accountRefillInterval;
+
+    private RateLimiter ipLimiter;
+    private RateLimiter accountLimiter;
+
+    @PostConstruct
+    void init() {
+        ipLimiter = new RateLimiter(ipCapacity, ipRefillInterval);
+        accountLimiter = new RateLimiter(accountCapacity, accountRefillInterval);
+    }
+
+    /**
+     * Seconds the client has to wait before its IP may call again, or 0 when the request is admitted.
+     */
+    public long ipRetryAfterSeconds(String ip) {
+        if (!enabled) {
+            return 0;
+        }
+        long retryAfterSeconds = toRetryAfterSeconds(ipLimiter.tryAcquire(ip));
+        if (retryAfterSeconds > 0) {
+            authMetrics.failure(AuthFailure.RATE_LIMITED);
+        }
+        return retryAfterSeconds;
+    }
+
+    public void checkAccount(String email) {
+        if (!enabled || email == null) {
+            return;
+        }
+        long retryAfterSeconds = toRetryAfterSeconds(accountLimiter.tryAcquire(User.normalizeEmail(email)));
+        if (retryAfterSeconds > 0) {
+            authMetrics.failure(AuthFailure.RATE_LIMITED);
+            throw new RateLimitExceededException(LIMIT_EXCEEDED_MESSAGE, retryAfterSeconds);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.rate-limit.eviction-interval:PT1M}")
+    public void evictIdleBuckets() {
+        ipLimiter.evictIdle();
+        accountLimiter.evictIdle();
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        if (waitNanos <= 0) {
+            return 0;
+        }
+        // Retry-After has whole-second resolution; round up so a client that honours it is admitted
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.demo.util;
+
+import com.example.demo.cache.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.InvalidKeyException;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keys for signing and verifying tokens. With {@code auth.jwt.algorithm=HS256} (the default) tokens are signed with
+ * the shared {@link JwtUtil#SECRET}. With RS256 or ES256 the keys come from a PKCS12 keystore: every certificate in
+ * it is a verification key named by its alias, which tokens carry as their {@code kid} header, and the private key
+ * under {@code auth.jwt.keystore.signing-alias} signs new tokens. A keystore holding only certificates gives a node
+ * that can verify tokens but not mint them. The file is re-read when it changes, so keys can be added and rotated
+ * without a restart.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+    private static final Key LEGACY_HS256_KEY = Keys.hmacShaKeyFor(JwtUtil.SECRET.getBytes());
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Value("${auth.jwt.algorithm:HS256}")
+    private SignatureAlgorithm algorithm;
+
+    @Value("${auth.jwt.keystore.path:}")
+    private String keystorePath;
+
+    @Value("${auth.jwt.keystore.password:}")
+    private String keystorePassword;
+
+    @Value("${auth.jwt.keystore.signing-alias:}")
+    private String signingAlias;
+
+    // lets HS256 tokens issued before the switch to a key ring verify until they expire. Off by default: while it is on,
+    // anyone who knows the shared secret can mint a token every node accepts, so enable it only for the switch-over
+    @Value("${auth.jwt.accept-legacy-hs256:false}")
+    private boolean acceptLegacyHs256;
+
+    private volatile JwtKeys keys;
+    private volatile long keystoreModified;
+
+    // the resolver reads the current generation on every parse, so one parser serves all reloads
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                @Override
+                public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                    return verificationKey(header.getKeyId());
+                }
+            })
+            .build();
+
+    @PostConstruct
+    void init() throws IOException, GeneralSecurityException {
+        if (algorithm == SignatureAlgorithm.HS256) {
+            keys = new JwtKeys(algorithm, null, LEGACY_HS256_KEY, Map.of());
+            return;
+        }
+        if (algorithm != SignatureAlgorithm.RS256 && algorithm != SignatureAlgorithm.ES256) {
+            throw new IllegalStateException("Unsupported token signing algorithm " + algorithm + "; use HS256, RS256 or ES256");
+        }
+        if (keystorePath.isBlank()) {
+            throw new IllegalStateException("auth.jwt.keystore.path is required for " + algorithm);
+        }
+
+        keystoreModified = Files.getLastModifiedTime(Path.of(keystorePath)).toMillis();
+        keys = load();
+    }
+
+    public JwtParser parser() {
+        return parser;
+    }
+
+    public JwtKeys current() {
+        return keys;
+    }
+
+    @Scheduled(fixedDelayString = "${auth.jwt.keystore.reload-interval:PT1M}")
+    public void reloadIfChanged() {
+        if (algorithm == SignatureAlgorithm.HS256) {
+            return;
+        }
+
+        try {
+            long modified = Files.getLastModifiedTime(Path.of(keystorePath)).toMillis();
+            if (modified == keystoreModified) {
+                return;
+            }
+
+            JwtKeys reloaded = load();
+            boolean keysWithdrawn = !reloaded.verificationKeys().keySet().containsAll(keys.verificationKeys().keySet());
+            keys = reloaded;
+            keystoreModified = modified;
+            // tokens verified with a key that is gone must not keep passing from the cache,
+            // and tokens refused for an unknown kid may now verify
+            if (keysWithdrawn) {
+                verifiedTokenCache.invalidateAll();
+            } else {
+                verifiedTokenCache.invalidateRejected();
+            }
+            log.info("Reloaded token keys from {}: verification keys {}, signing key {}",
+                    keystorePath, reloaded.verificationKeys().keySet(), reloaded.signingKid());
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            // a half-written or broken file must not take the current keys away
+            log.error("Could not reload token keys from {}, keeping the current ones", keystorePath, e);
+        }
+    }
+
+    private Key verificationKey(String kid) {
+        JwtKeys current = keys;
+        if (kid == null) {
+            if (current.algorithm() == SignatureAlgorithm.HS256 || acceptLegacyHs256) {
+                return LEGACY_HS256_KEY;
+            }
+            throw new InvalidKeyException("Token has no key id");
+        }
+
+        Key key = current.verificationKeys().get(kid);
+        if (key == null) {
+            throw new InvalidKeyException("Unknown key id " + kid);
+        }
+        return key;
+    }
+
+    private JwtKeys load() throws IOException, GeneralSecurityException {
+        char[] password = keystorePassword.toCharArray();
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(Path.of(keystorePath))) {
+            keyStore.load(in, password);
+        }
+
+        Map<String, Key> verificationKeys = new HashMap<>();
+        for (String alias : Collections.list(keyStore.aliases())) {
+            Certificate certificate = keyStore.getCertificate(alias);
+            if (certificate != null) {
+                verificationKeys.put(alias, certificate.getPublicKey());
+            }
+        }
+
+        PrivateKey signingKey = null;
+        if (!signingAlias.isBlank() && keyStore.isKeyEntry(signingAlias)) {
+            signingKey = (PrivateKey) keyStore.getKey(signingAlias, password);
+            // fails here rather than on the first login if the key does not fit the algorithm
+            algorithm.assertValidSigningKey(signingKey);
+        } else if (!signingAlias.isBlank()) {
+            throw new IllegalStateException("No private key under alias " + signingAlias + " in " + keystorePath);
+        }
+
+        return new JwtKeys(algorithm, signingKey == null ? null : signingAlias, signingKey, Map.copyOf(verificationKeys));
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.util;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import java.security.Key;
+import java.util.Map;
+
+/**
+ * One immutable generation of the key ring. {@code signingKey} is null on nodes that only verify;
+ * {@code signingKid} is null for HS256 tokens, which are written without a {@code kid} header as before.
+ */
+public record JwtKeys(SignatureAlgorithm algorithm, String signingKid, Key signingKey, Map<String, Key> verificationKeys) {
+}
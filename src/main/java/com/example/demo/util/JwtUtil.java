@@ -1,75 +1,192 @@
 package com.example.demo.util;
 
+import com.example.demo.cache.VerifiedTokenCache;
+import com.example.demo.enums.AuthFailure;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepo;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import lombok.Getter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
-import java.util.Optional;
-import java.util.function.Function;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
     @Autowired
     private UserRepo userRepo;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private JwtKeyRing jwtKeyRing;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    // only used by the default HS256 mode; see JwtKeyRing
     public static final String SECRET = "dsfoisdjiofjsiofjesfei9jfiejuf9ew9i-0fgi0njsiofj";
-    private static final Key SECRET_KEY = Keys.hmacShaKeyFor(SECRET.getBytes());
 
-    // 24 hours
-    private static final long EXPIRATION_TIME = 24 * 60 * 60 * 1000;
+    // short, so a leaked token is only useful briefly; clients renew it through /api/auth/refresh
+    @Getter
+    @Value("${auth.jwt.access-token-ttl:PT15M}")
+    private Duration accessTokenTtl = Duration.ofMinutes(15);
+
+    private static final String PROFILE_CLAIM = "profile";
+    private static final JsonFactory JSON = new JsonFactory();
+
+    @Value("${auth.profile-claims.enabled:false}")
+    private boolean profileClaimsEnabled;
 
     public String generateToken(String email) {
-        return Jwts.builder()
-                .setSubject(email)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(SECRET_KEY, SignatureAlgorithm.HS256)
-                .compact();
+        return sign(Jwts.builder()
+                .setSubject(email));
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    /**
+     * Like {@link #generateToken(String)}, but with profile claims enabled the token also carries a
+     * {@link ProfileSnapshot} of the user, so authenticated requests can be served without loading the user.
+     */
+    public String generateToken(User user) {
+        if (!profileClaimsEnabled) {
+            return generateToken(user.getEmail());
+        }
+
+        return sign(Jwts.builder()
+                .setSubject(user.getEmail())
+                .claim(PROFILE_CLAIM, ProfileSnapshot.of(user).toClaim()));
     }
 
-    public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
+    private String sign(JwtBuilder builder) {
+        JwtKeys keys = jwtKeyRing.current();
+        if (keys.signingKey() == null) {
+            throw new IllegalStateException("This node has no token signing key");
+        }
+        if (keys.signingKid() != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, keys.signingKid());
+        }
+
+        return builder
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + accessTokenTtl.toMillis()))
+                .signWith(keys.signingKey(), keys.algorithm())
+                .compact();
     }
 
     public boolean validateToken(String token, String userEmail) {
-        Optional<User> user = userRepo.findByEmail(userEmail);
-        if (user.isEmpty()) {
+        TokenVerification verification = check(token);
+        if (!verification.isValid() || !userEmail.equals(verification.claims().subject())) {
             return false;
         }
 
-        return !isTokenExpired(token);
+        return userRepo.existsByEmail(userEmail);
     }
 
     public boolean isTokenExpired(String token) {
-        final Date expiration = extractClaim(token, Claims::getExpiration);
-        return expiration.before(new Date());
+        return check(token).failure() == AuthFailure.EXPIRED_TOKEN;
+    }
+
+    /**
+     * Checks the signature and expiry of the token in a single parse. Tokens seen recently, accepted or refused, are
+     * answered from {@link VerifiedTokenCache} without repeating the crypto. Malformed and expired tokens are refused
+     * before the signature check, so floods of junk or stale cookies never reach JJWT and its exceptions.
+     */
+    public TokenVerification check(String token) {
+        if (!isWellFormed(token)) {
+            return TokenVerification.rejected(AuthFailure.INVALID_TOKEN);
+        }
+        return verifiedTokenCache.get(token, this::parse);
+    }
+
+    private TokenVerification parse(String token) {
+        long expiresAt = unverifiedExpiry(token);
+        if (expiresAt < 0) {
+            return TokenVerification.rejected(AuthFailure.INVALID_TOKEN);
+        }
+        // refusing on an unverified exp is safe; accepting is still up to the signature check
+        if (expiresAt * 1000 <= System.currentTimeMillis()) {
+            return TokenVerification.rejected(AuthFailure.EXPIRED_TOKEN);
+        }
+
+        return authMetrics.jwtVerify().record(() -> {
+            try {
+                return TokenVerification.valid(toVerifiedClaims(jwtKeyRing.parser().parseClaimsJws(token).getBody()));
+            } catch (ExpiredJwtException e) {
+                return TokenVerification.rejected(AuthFailure.EXPIRED_TOKEN);
+            } catch (JwtException | IllegalArgumentException e) {
+                return TokenVerification.rejected(AuthFailure.INVALID_TOKEN);
+            }
+        });
+    }
+
+    // three non-empty base64url segments; anything else cannot be a signed token
+    private static boolean isWellFormed(String token) {
+        if (token == null) {
+            return false;
+        }
+        int dots = 0;
+        int segmentLength = 0;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (segmentLength == 0 || segmentLength % 4 == 1) {
+                    return false;
+                }
+                dots++;
+                segmentLength = 0;
+            } else if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_') {
+                segmentLength++;
+            } else {
+                return false;
+            }
+        }
+        return dots == 2 && segmentLength > 0 && segmentLength % 4 != 1;
     }
 
-    public Claims extractAllClaims(String token) {
-        try{
-            return Jwts.parserBuilder()
-                    .setSigningKey(SECRET_KEY)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-        } catch (ExpiredJwtException e) {
-            throw new RuntimeException("Token is expired");
-        } catch (JwtException e) {
-            throw new RuntimeException("Token is invalid");
+    // the exp claim in epoch seconds as written in the payload, or -1 when there is none
+    private static long unverifiedExpiry(String token) {
+        int start = token.indexOf('.') + 1;
+        byte[] payload = Base64.getUrlDecoder().decode(token.substring(start, token.indexOf('.', start)));
+        try (JsonParser parser = JSON.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return -1;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals("exp")) {
+                    return value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : -1;
+                }
+                parser.skipChildren();
+            }
+            return -1;
+        } catch (IOException e) {
+            return -1;
         }
     }
+
+    private static VerifiedClaims toVerifiedClaims(Claims claims) {
+        return new VerifiedClaims(
+                claims.getSubject(),
+                claims.getId(),
+                claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant(),
+                ProfileSnapshot.fromClaim(claims.get(PROFILE_CLAIM))
+        );
+    }
 }
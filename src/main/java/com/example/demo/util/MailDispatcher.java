@@ -0,0 +1,108 @@
+package com.example.demo.util;
+
+import com.example.demo.model.MailDeadLetter;
+import com.example.demo.repository.MailDeadLetterRepo;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sends batches of mail. Each batch goes to {@link JavaMailSender#send(SimpleMailMessage...)}, which delivers it
+ * over one SMTP connection. Failed messages are retried with exponential backoff and dead-lettered once retries
+ * run out. Batches come from {@link MailOutboxRelay}.
+ */
+@Slf4j
+@Component
+public class MailDispatcher {
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private MailDeadLetterRepo mailDeadLetterRepo;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @Value("${auth.mail.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${auth.mail.initial-backoff:PT1S}")
+    private Duration initialBackoff;
+
+    /**
+     * Delivers the batch, retrying failures. Returns the messages that were dead-lettered, empty if all went out.
+     */
+    public List<SimpleMailMessage> deliver(List<SimpleMailMessage> batch) throws InterruptedException {
+        List<SimpleMailMessage> pending = batch;
+        MailException lastError = null;
+        long backoffMillis = initialBackoff.toMillis();
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            Timer.Sample sample = authMetrics.startMail();
+            try {
+                mailSender.send(pending.toArray(new SimpleMailMessage[0]));
+                authMetrics.mailSent(sample, true);
+                return List.of();
+            } catch (MailSendException e) {
+                authMetrics.mailSent(sample, false);
+                lastError = e;
+                // only the messages the server rejected are retried; the rest of the batch already went out
+                if (!e.getFailedMessages().isEmpty()) {
+                    pending = failedMessages(e);
+                }
+            } catch (MailException e) {
+                authMetrics.mailSent(sample, false);
+                lastError = e;
+            }
+
+            if (attempt < maxAttempts) {
+                log.warn("Mail delivery attempt {} failed for {} messages, retrying in {} ms", attempt, pending.size(), backoffMillis);
+                Thread.sleep(backoffMillis);
+                backoffMillis *= 2;
+            }
+        }
+
+        deadLetter(pending, lastError);
+        return pending;
+    }
+
+    private static List<SimpleMailMessage> failedMessages(MailSendException e) {
+        List<SimpleMailMessage> failed = new ArrayList<>(e.getFailedMessages().size());
+        e.getFailedMessages().keySet().forEach(message -> {
+            if (message instanceof SimpleMailMessage simpleMailMessage) {
+                failed.add(simpleMailMessage);
+            }
+        });
+        return failed;
+    }
+
+    private void deadLetter(List<SimpleMailMessage> messages, MailException error) {
+        Instant now = Instant.now();
+        for (SimpleMailMessage message : messages) {
+            log.error("Giving up on mail to {} after {} attempts", Arrays.toString(message.getTo()), maxAttempts, error);
+            mailDeadLetterRepo.save(MailDeadLetter.builder()
+                    .recipient(String.join(",", message.getTo()))
+                    .subject(message.getSubject())
+                    .error(error == null ? null : truncate(error.getMessage(), 1000))
+                    .attempts(maxAttempts)
+                    .failedAt(now)
+                    .build());
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
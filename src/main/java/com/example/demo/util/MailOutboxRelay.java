@@ -0,0 +1,209 @@
+package com.example.demo.util;
+
+import com.example.demo.enums.OutboxStatus;
+import com.example.demo.model.MailOutbox;
+import com.example.demo.repository.MailDeadLetterRepo;
+import com.example.demo.repository.MailOutboxRepo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Drains {@link MailOutbox} in batches. Each worker claims rows in a short transaction (skipping rows another
+ * node holds), sends them through {@link MailDispatcher} and records the outcome, which gives at-least-once
+ * delivery: a node that dies mid-send leaves its rows SENDING until the lease runs out and another relay retries.
+ * Workers poll on an interval and are woken early whenever a local transaction commits a new row.
+ */
+@Slf4j
+@Component
+public class MailOutboxRelay {
+    @Autowired
+    private MailOutboxRepo mailOutboxRepo;
+
+    @Autowired
+    private MailDeadLetterRepo mailDeadLetterRepo;
+
+    @Autowired
+    private MailDispatcher mailDispatcher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${auth.mail.workers:2}")
+    private int workers;
+
+    @Value("${auth.mail.batch-size:20}")
+    private int batchSize;
+
+    @Value("${auth.mail.outbox.poll-interval:PT5S}")
+    private Duration pollInterval;
+
+    @Value("${auth.mail.outbox.lease:PT5M}")
+    private Duration lease;
+
+    @Value("${auth.mail.outbox.retention:P7D}")
+    private Duration retention;
+
+    @Value("${auth.mail.outbox.purge-batch-size:500}")
+    private int purgeBatchSize;
+
+    @Value("${auth.mail.outbox.purge-max-batches:100}")
+    private int purgeMaxBatches;
+
+    private final Semaphore wakeUps = new Semaphore(0);
+    private ExecutorService workerPool;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        workerPool = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("mail-outbox-relay-"));
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::run);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        wakeUps.release(workers);
+        workerPool.shutdown();
+        workerPool.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @TransactionalEventListener
+    public void onMailQueued(MailQueuedEvent event) {
+        wakeUps.release();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (relayBatch() == 0) {
+                    wakeUps.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    wakeUps.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Mail outbox relay failed", e);
+                sleepQuietly();
+            }
+        }
+    }
+
+    /**
+     * Claims, sends and settles one batch; returns the number of rows it claimed.
+     */
+    int relayBatch() throws InterruptedException {
+        List<MailOutbox> claimed = claim();
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        Map<SimpleMailMessage, MailOutbox> rowsByMessage = new IdentityHashMap<>();
+        for (MailOutbox row : claimed) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(row.getRecipient());
+            message.setSubject(row.getSubject());
+            message.setText(row.getBody());
+            rowsByMessage.put(message, row);
+        }
+
+        Set<SimpleMailMessage> undelivered = Collections.newSetFromMap(new IdentityHashMap<>());
+        undelivered.addAll(mailDispatcher.deliver(new ArrayList<>(rowsByMessage.keySet())));
+
+        List<String> sent = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        rowsByMessage.forEach((message, row) -> (undelivered.contains(message) ? failed : sent).add(row.getId()));
+
+        Instant now = Instant.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sent.isEmpty()) {
+                mailOutboxRepo.markSent(sent, now);
+            }
+            if (!failed.isEmpty()) {
+                mailOutboxRepo.markFailed(failed);
+            }
+        });
+
+        return claimed.size();
+    }
+
+    /**
+     * Deletes SENT and FAILED rows and dead letters older than the retention period in bounded chunks, so neither
+     * table grows with every mail ever sent. Returns the number of rows removed.
+     */
+    @Scheduled(fixedDelayString = "${auth.mail.outbox.purge-interval:PT1H}", initialDelayString = "${auth.mail.outbox.purge-interval:PT1H}")
+    public int purgeSettled() {
+        Instant before = Instant.now().minus(retention);
+        int settled = purgeInBatches(limit -> mailOutboxRepo.findSettledIds(before, limit), mailOutboxRepo::deleteAllByIdInBatch);
+        int deadLetters = purgeInBatches(limit -> mailDeadLetterRepo.findIdsFailedBefore(before, limit), mailDeadLetterRepo::deleteAllByIdInBatch);
+
+        if (settled > 0 || deadLetters > 0) {
+            log.info("Purged {} settled outbox mails and {} dead letters", settled, deadLetters);
+        }
+        return settled + deadLetters;
+    }
+
+    private int purgeInBatches(Function<Limit, List<String>> findIds, Consumer<List<String>> delete) {
+        int purged = 0;
+        for (int batch = 0; batch < purgeMaxBatches; batch++) {
+            List<String> ids = findIds.apply(Limit.of(purgeBatchSize));
+            if (!ids.isEmpty()) {
+                delete.accept(ids);
+            }
+            purged += ids.size();
+            if (ids.size() < purgeBatchSize) {
+                break;
+            }
+        }
+        return purged;
+    }
+
+    private List<MailOutbox> claim() {
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<MailOutbox> rows = mailOutboxRepo.findClaimable(now.minus(lease), Limit.of(batchSize));
+            for (MailOutbox row : rows) {
+                row.setStatus(OutboxStatus.SENDING);
+                row.setClaimedAt(now);
+                row.setAttempts(row.getAttempts() + 1);
+            }
+            return rows;
+        });
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(pollInterval.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.util;
+
+/**
+ * Published when a mail is written to the outbox, so the relay can pick it up once the transaction commits.
+ */
+public record MailQueuedEvent(String outboxId) {
+}
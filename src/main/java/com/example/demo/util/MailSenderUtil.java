@@ -1,20 +1,40 @@
 package com.example.demo.util;
 
+import com.example.demo.enums.OutboxStatus;
+import com.example.demo.model.MailOutbox;
+import com.example.demo.repository.MailOutboxRepo;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+
 @Component
 public class MailSenderUtil {
+    private static final String VERIFICATION_SUBJECT = "Email verification code";
+
+    @Autowired
+    private MailOutboxRepo mailOutboxRepo;
+
     @Autowired
-    private JavaMailSender mailSender;
-
-    public void sendVerificationMail(String to, String verificationCode) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject("Email verification code");
-        message.setText("Your verification code is: " + verificationCode);
-        mailSender.send(message);
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Writes the mail to the outbox as part of the caller's transaction; {@link MailOutboxRelay} sends it after commit.
+     */
+    public void queueVerificationMail(String to, String verificationCode) {
+        MailOutbox mail = mailOutboxRepo.save(MailOutbox.builder()
+                .recipient(to)
+                .subject(VERIFICATION_SUBJECT)
+                .body(verificationText(verificationCode))
+                .status(OutboxStatus.PENDING)
+                .createdAt(Instant.now())
+                .build());
+
+        eventPublisher.publishEvent(new MailQueuedEvent(mail.getId()));
+    }
+
+    private static String verificationText(String verificationCode) {
+        return "Your verification code is: " + verificationCode;
     }
 }
@@ -0,0 +1,139 @@
+package com.example.demo.util;
+
+import com.example.demo.exception.ServiceBusyException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a dedicated pool sized to the CPU count, so a login storm cannot occupy every
+ * request thread with BCrypt. Waiting work is bounded; once it is full new work fails fast with
+ * {@link ServiceBusyException} instead of piling up.
+ * <p>
+ * Admission goes through a semaphore with one permit per pool thread and queue slot, and it is the only bound: the
+ * queue behind it is unbounded, so a permit released as a hash completes never meets a queue the worker has not yet
+ * drained. With virtual request threads {@code auth.hashing.admission-timeout} lets callers park for a permit instead
+ * of failing at once; BCrypt itself always runs on the pool's platform threads, so it never occupies a virtual
+ * thread's carrier.
+ */
+@Component
+public class PasswordHasher {
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    // 0 means one thread per available processor
+    @Value("${auth.hashing.threads:0}")
+    private int threads;
+
+    @Value("${auth.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    // zero fails fast, which suits a fixed pool of platform request threads
+    @Value("${auth.hashing.admission-timeout:PT0S}")
+    private Duration admissionTimeout;
+
+    private ThreadPoolExecutor executor;
+    private Semaphore admission;
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                // never holds more than queueCapacity tasks, since each one holds an admission permit
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("password-hasher-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        admission = new Semaphore(poolSize + queueCapacity);
+
+        authMetrics.monitor(executor, "password-hasher");
+        authMetrics.gauge("auth.hashing.admission.available", "Hashing requests that can still be admitted before callers are turned away",
+                admission, Semaphore::availablePermits);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        return submit(() -> authMetrics.passwordEncode().record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> authMetrics.passwordMatch().record(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return await(encodeAsync(rawPassword));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(matchesAsync(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Whether the stored hash was produced with outdated parameters and should be replaced after a successful match.
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (!acquireAdmission()) {
+            throw new ServiceBusyException("Server is busy, please try again later");
+        }
+        try {
+            return CompletableFuture.supplyAsync(task, executor)
+                    .whenComplete((result, error) -> admission.release());
+        } catch (RejectedExecutionException e) {
+            // only once the pool is shutting down
+            admission.release();
+            throw new ServiceBusyException("Server is busy, please try again later");
+        }
+    }
+
+    private boolean acquireAdmission() {
+        if (admissionTimeout.isZero()) {
+            return admission.tryAcquire();
+        }
+        try {
+            return admission.tryAcquire(admissionTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.util;
+
+import com.example.demo.enums.Role;
+import com.example.demo.model.User;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Profile fields embedded in a token when {@code auth.profile-claims.enabled} is set, together with the
+ * {@link User#getProfileVersion() profile version} they were taken from.
+ */
+public record ProfileSnapshot(String id, String fullName, String phoneNumber, String address, Role role, long version) {
+
+    public static ProfileSnapshot of(User user) {
+        return new ProfileSnapshot(user.getId(), user.getFullName(), user.getPhoneNumber(), user.getAddress(),
+                user.getRole() == null ? Role.USER : user.getRole(), user.getProfileVersion());
+    }
+
+    /**
+     * Reads the snapshot back from the parsed claim; null when the claim is missing or has no version or role, so
+     * tokens issued before the role was embedded fall back to loading the user.
+     */
+    public static ProfileSnapshot fromClaim(Object claim) {
+        if (!(claim instanceof Map<?, ?> profile) || !(profile.get("version") instanceof Number version)
+                || !(profile.get("role") instanceof String role)) {
+            return null;
+        }
+
+        return new ProfileSnapshot(
+                (String) profile.get("id"),
+                (String) profile.get("fullName"),
+                (String) profile.get("phoneNumber"),
+                (String) profile.get("address"),
+                Role.valueOf(role),
+                version.longValue()
+        );
+    }
+
+    // a plain map, so JJWT serializes it as a nested JSON object
+    public Map<String, Object> toClaim() {
+        Map<String, Object> claim = new HashMap<>();
+        claim.put("id", id);
+        claim.put("fullName", fullName);
+        claim.put("phoneNumber", phoneNumber);
+        claim.put("address", address);
+        claim.put("role", role.name());
+        claim.put("version", version);
+        return claim;
+    }
+
+    /**
+     * A detached principal rebuilt from the snapshot; it carries no password.
+     */
+    public User toUser(String email) {
+        return User.builder()
+                .id(id)
+                .email(email)
+                .fullName(fullName)
+                .phoneNumber(phoneNumber)
+                .address(address)
+                .role(role)
+                .profileVersion(version)
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.util;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket per key, kept as a single "theoretical arrival time" (GCRA): a request is admitted while the
+ * bucket's arrival time stays within {@code capacity} refill intervals of now. Each bucket is one
+ * {@link AtomicLong} updated with compare-and-set, so admission never takes a lock, and the map is striped by
+ * {@link ConcurrentHashMap}'s bins.
+ */
+public class RateLimiter {
+    private final long refillIntervalNanos;
+    private final long burstNanos;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(int capacity, Duration refillInterval) {
+        if (capacity < 1 || refillInterval.isNegative() || refillInterval.isZero()) {
+            throw new IllegalArgumentException("Rate limit needs a positive capacity and refill interval");
+        }
+        this.refillIntervalNanos = refillInterval.toNanos();
+        this.burstNanos = refillIntervalNanos * capacity;
+    }
+
+    /**
+     * Takes one token for the key. Returns 0 when admitted, otherwise how many nanoseconds until a token is free.
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong arrival = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + refillIntervalNanos;
+            long waitNanos = next - now - burstNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have refilled completely; they behave exactly like a missing bucket. A request racing
+     * with the removal may update the dropped bucket, which costs at most that one request's token.
+     */
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.values().removeIf(arrival -> arrival.get() - now <= 0);
+        return before - buckets.size();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.util;
+
+import com.example.demo.enums.AuthFailure;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Outcome of {@link JwtUtil#check(String)}: either the verified claims or the reason the token was refused.
+ * Refusals are shared constants, so turning a token away allocates nothing and throws nothing.
+ */
+public record TokenVerification(VerifiedClaims claims, AuthFailure failure) {
+    private static final Map<AuthFailure, TokenVerification> REJECTIONS = new EnumMap<>(AuthFailure.class);
+
+    static {
+        for (AuthFailure failure : AuthFailure.values()) {
+            REJECTIONS.put(failure, new TokenVerification(null, failure));
+        }
+    }
+
+    public static TokenVerification valid(VerifiedClaims claims) {
+        return new TokenVerification(claims, null);
+    }
+
+    public static TokenVerification rejected(AuthFailure failure) {
+        return REJECTIONS.get(failure);
+    }
+
+    public boolean isValid() {
+        return failure == null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.util;
+
+import java.time.Instant;
+
+/**
+ * Claims of a token whose signature and expiry have already been checked by {@link JwtUtil#check(String)}.
+ * {@code tokenId} (the jti claim) is null for tokens issued before revocation existed, and {@code profile} is null
+ * unless the token was issued with profile claims.
+ */
+public record VerifiedClaims(String subject, String tokenId, Instant issuedAt, Instant expiresAt, ProfileSnapshot profile) {
+
+    public boolean isExpired() {
+        return expiresAt.isBefore(Instant.now());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.cache;
+
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class PrincipalCacheTest {
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testGet_cachesUntilUserIsUpdated() {
+        User user = userRepo.save(User.builder()
+                .fullName("cache user")
+                .email("cache@test.com")
+                .password("encoded-password")
+                .phoneNumber("1234567890")
+                .address("test address")
+                .build());
+
+        long missesBefore = principalCache.stats().missCount();
+        assertTrue(principalCache.get("cache@test.com").isPresent());
+        assertTrue(principalCache.get("cache@test.com").isPresent());
+        assertEquals(missesBefore + 1, principalCache.stats().missCount());
+
+        user.setAddress("new address");
+        userRepo.save(user);
+
+        assertEquals("new address", principalCache.get("cache@test.com").get().getAddress());
+        assertEquals(missesBefore + 2, principalCache.stats().missCount());
+    }
+
+    @Test
+    public void testGet_concurrentReloadBeforeCommitDoesNotStick() throws Exception {
+        userRepo.save(User.builder()
+                .fullName("race user")
+                .email("race@test.com")
+                .password("encoded-password")
+                .phoneNumber("1234567890")
+                .address("old address")
+                .build());
+        assertEquals("old address", principalCache.get("race@test.com").orElseThrow().getAddress());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepo.findByEmail("race@test.com").orElseThrow();
+            user.setAddress("new address");
+            userRepo.flush();
+            // another request reads the committed, old row while this transaction is still open
+            CompletableFuture.runAsync(() -> principalCache.get("race@test.com")).join();
+        });
+
+        assertEquals("new address", principalCache.get("race@test.com").orElseThrow().getAddress());
+    }
+
+    @Test
+    public void testGet_loadOverlappingEvictionIsNotCached() {
+        UserRepo repo = mock(UserRepo.class);
+        PrincipalCache cache = new PrincipalCache();
+        ReflectionTestUtils.setField(cache, "userRepo", repo);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "maxSize", 10L);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(1));
+        cache.init();
+
+        User stale = User.builder().email("stale@test.com").build();
+        User current = User.builder().email("stale@test.com").tokensValidAfter(Instant.now()).build();
+        // the reset commits and evicts while this request still holds the row it read before
+        when(repo.findByEmail("stale@test.com")).thenAnswer(invocation -> {
+            cache.evict("stale@test.com");
+            return Optional.of(stale);
+        }).thenReturn(Optional.of(current));
+
+        assertSame(stale, cache.get("stale@test.com").orElseThrow());
+        assertSame(current, cache.get("stale@test.com").orElseThrow());
+        assertSame(current, cache.get("stale@test.com").orElseThrow());
+        verify(repo, times(2)).findByEmail("stale@test.com");
+    }
+}
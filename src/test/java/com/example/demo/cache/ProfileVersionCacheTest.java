@@ -0,0 +1,60 @@
+package com.example.demo.cache;
+
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepo;
+import com.example.demo.util.JwtUtil;
+import com.example.demo.util.ProfileSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ProfileVersionCacheTest {
+    @Autowired
+    private ProfileVersionCache profileVersionCache;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @AfterEach
+    public void tearDown() {
+        ReflectionTestUtils.setField(jwtUtil, "profileClaimsEnabled", false);
+    }
+
+    @Test
+    public void testProfileClaims_becomeStaleWhenUserIsUpdated() {
+        User user = userRepo.save(User.builder()
+                .fullName("claims user")
+                .email("claims@test.com")
+                .password("encoded-password")
+                .phoneNumber("1234567890")
+                .address("test address")
+                .build());
+
+        assertNull(jwtUtil.check(jwtUtil.generateToken(user)).claims().profile());
+
+        ReflectionTestUtils.setField(jwtUtil, "profileClaimsEnabled", true);
+        ProfileSnapshot profile = jwtUtil.check(jwtUtil.generateToken(user)).claims().profile();
+        assertEquals("claims user", profile.fullName());
+        assertEquals(user.getId(), profile.id());
+        assertTrue(profileVersionCache.isCurrent("claims@test.com", profile.version()));
+
+        user.setAddress("new address");
+        userRepo.save(user);
+
+        assertFalse(profileVersionCache.isCurrent("claims@test.com", profile.version()));
+        assertFalse(profileVersionCache.isCurrent("unknown@test.com", 0));
+    }
+}
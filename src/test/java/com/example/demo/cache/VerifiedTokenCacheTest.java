@@ -0,0 +1,65 @@
+package com.example.demo.cache;
+
+import com.example.demo.enums.AuthFailure;
+import com.example.demo.util.JwtUtil;
+import com.example.demo.util.TokenVerification;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class VerifiedTokenCacheTest {
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    public void testCheck_repeatedTokenIsServedFromCache() {
+        String token = jwtUtil.generateToken("token-cache@test.com");
+
+        long hitsBefore = verifiedTokenCache.stats().hitCount();
+        assertEquals("token-cache@test.com", jwtUtil.check(token).claims().subject());
+        assertEquals("token-cache@test.com", jwtUtil.check(token).claims().subject());
+        assertEquals(hitsBefore + 1, verifiedTokenCache.stats().hitCount());
+    }
+
+    @Test
+    public void testCheck_tamperedTokenIsRefused() {
+        String token = jwtUtil.generateToken("token-cache@test.com") + "x";
+
+        assertFalse(jwtUtil.check(token).isValid());
+        assertFalse(jwtUtil.check(token).isValid());
+    }
+
+    @Test
+    public void testCheck_refusesWithReasonAndRemembersRefusal() {
+        String token = jwtUtil.generateToken("forged@test.com");
+        String other = jwtUtil.generateToken("other@test.com");
+        String forged = token.substring(0, token.lastIndexOf('.')) + other.substring(other.lastIndexOf('.'));
+
+        TokenVerification first = jwtUtil.check(forged);
+        assertEquals(AuthFailure.INVALID_TOKEN, first.failure());
+        assertSame(first, jwtUtil.check(forged));
+
+        String expired = Jwts.builder()
+                .setSubject("expired@test.com")
+                .setExpiration(new Date(System.currentTimeMillis() - 60_000))
+                .signWith(Keys.hmacShaKeyFor(JwtUtil.SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+        assertEquals(AuthFailure.EXPIRED_TOKEN, jwtUtil.check(expired).failure());
+        assertEquals(AuthFailure.INVALID_TOKEN, jwtUtil.check("not.a-token").failure());
+    }
+}
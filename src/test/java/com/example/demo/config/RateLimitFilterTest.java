@@ -0,0 +1,52 @@
+package com.example.demo.config;
+
+import com.example.demo.forms.LoginForm;
+import com.example.demo.util.TestUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// a burst of two per IP, refilled far slower than the test runs; actuator shares the port so health is served here
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "auth.rate-limit.ip.capacity=2",
+        "auth.rate-limit.ip.refill-interval=PT1H",
+        "management.server.port=",
+})
+@ActiveProfiles("test")
+public class RateLimitFilterTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testPublicEndpoints_refuseIpOverBudgetButNotHealthProbes() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(signIn("limited-ip" + i + "@test.com"))
+                    .andExpect(status().isNotFound());
+        }
+
+        mockMvc.perform(signIn("limited-ip2@test.com"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.get("/actuator/health"))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    private static RequestBuilder signIn(String email) throws Exception {
+        return MockMvcRequestBuilders.post("/api/auth/sign-in")
+                .contentType("application/json")
+                .content(TestUtils.convertObjectToJsonBytes(new LoginForm(email, "test1234")));
+    }
+}
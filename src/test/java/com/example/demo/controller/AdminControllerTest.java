@@ -0,0 +1,146 @@
+package com.example.demo.controller;
+
+import com.example.demo.enums.Role;
+import com.example.demo.forms.LoginForm;
+import com.example.demo.forms.SignUpForm;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepo;
+import com.example.demo.util.TestUtils;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@SpringBootTest
+@ActiveProfiles("test")
+public class AdminControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Test
+    public void testImport_reportsFailedRowsAndExports() throws Exception {
+        Cookie admin = signInAdmin("admin@test.com");
+
+        String rows = """
+                {"fullName":"bulk one","email":"bulk1@test.com","password":"test1234","phoneNumber":"1234567890","address":"test address"}
+                {"fullName":"bulk two","email":"bulk2@test.com","password":"short","phoneNumber":"1234567890","address":"test address"}
+                {"fullName":"bulk three","email":"admin@test.com","password":"test1234","phoneNumber":"1234567890","address":"test address"}
+                {"fullName":"bulk one again","email":"bulk1@test.com","password":"test1234","phoneNumber":"1234567890","address":"test address"}
+                not json
+                """;
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/admin/users/import")
+                        .cookie(admin)
+                        .contentType("application/x-ndjson")
+                        .content(rows))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(4))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[1].message").value("User with the same email id exists"))
+                .andExpect(jsonPath("$.errors[2].message").value("Duplicate email in import"))
+                .andExpect(jsonPath("$.errors[3].line").value(5));
+
+        // the imported password works like one set through sign-up
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/sign-in")
+                        .contentType("application/json")
+                        .content(TestUtils.convertObjectToJsonBytes(new LoginForm("bulk1@test.com", "test1234"))))
+                .andExpect(status().isOk());
+
+        String csv = "email,fullName,password,phoneNumber,address\n"
+                + "bulk3@test.com,bulk three,test1234,1234567890,\"street 1, city\"\n";
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/admin/users/import")
+                        .cookie(admin)
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+
+        MvcResult export = mockMvc.perform(MockMvcRequestBuilders.get("/api/admin/users/export").param("format", "csv").cookie(admin))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String exported = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(exported.startsWith("id,fullName,email,phoneNumber,address\n"));
+        assertTrue(exported.contains(",bulk three,bulk3@test.com,1234567890,\"street 1, city\""));
+        assertTrue(!exported.contains("$2a$") && !exported.contains("{bcrypt}"));
+    }
+
+    @Test
+    public void testImport_requiresAdmin() throws Exception {
+        Cookie user = signIn("notadmin@test.com");
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/admin/users/import")
+                        .cookie(user)
+                        .contentType("application/x-ndjson")
+                        .content("{}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void testImport_signUpDoesNotGrantAdmin() throws Exception {
+        // the address an admin signs in with carries no weight of its own; only the stored role does
+        Cookie user = signIn("admin2@test.com");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/admin/users/export").cookie(user))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void testMetrics_notServedOnApplicationPort() throws Exception {
+        // management.server.port is set, so actuator is not mapped on the application port at all
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus").cookie(signInAdmin("admin@test.com")))
+                .andExpect(status().isNotFound());
+    }
+
+    private Cookie signInAdmin(String email) throws Exception {
+        signIn(email);
+
+        User admin = userRepo.findByEmail(email).orElseThrow();
+        admin.setRole(Role.ADMIN);
+        userRepo.save(admin);
+
+        return signIn(email);
+    }
+
+    private Cookie signIn(String email) throws Exception {
+        SignUpForm signUpForm = new SignUpForm();
+
+        signUpForm.setEmail(email);
+        signUpForm.setPassword("test1234");
+        signUpForm.setFullName("test user");
+        signUpForm.setPhoneNumber("1234567890");
+        signUpForm.setAddress("test address");
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/sign-up")
+                .contentType("application/json")
+                .content(TestUtils.convertObjectToJsonBytes(signUpForm)));
+
+        return mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/sign-in")
+                        .contentType("application/json")
+                        .content(TestUtils.convertObjectToJsonBytes(new LoginForm(email, "test1234"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie("jwtToken");
+    }
+}
@@ -5,27 +5,63 @@ import com.example.demo.forms.LoginForm;
 import com.example.demo.forms.ResetPasswordForm;
 import com.example.demo.forms.SignUpForm;
 import com.example.demo.util.TestUtils;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc
 @SpringBootTest
+@ActiveProfiles("test")
 public class AuthControllerTest {
+    // local fake SMTP server on the port configured in application-test.properties
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     public void testSignup_validInput() throws Exception {
         SignUpForm signUpForm = new SignUpForm();
 
-        signUpForm.setEmail("test@test.com");
+        signUpForm.setEmail("signup@test.com");
+        signUpForm.setPassword("test1234");
+        signUpForm.setFullName("test user");
+        signUpForm.setPhoneNumber("1234567890");
+        signUpForm.setAddress("test address");
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/sign-up")
+                .contentType("application/json")
+                .content(TestUtils.convertObjectToJsonBytes(signUpForm)))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    public void testSignup_duplicateEmail() throws Exception {
+        SignUpForm signUpForm = new SignUpForm();
+
+        signUpForm.setEmail("duplicate@test.com");
         signUpForm.setPassword("test1234");
         signUpForm.setFullName("test user");
         signUpForm.setPhoneNumber("1234567890");
@@ -35,6 +71,11 @@ public class AuthControllerTest {
                 .contentType("application/json")
                 .content(TestUtils.convertObjectToJsonBytes(signUpForm)))
                 .andExpect(status().isCreated());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/sign-up")
+                .contentType("application/json")
+                .content(TestUtils.convertObjectToJsonBytes(signUpForm)))
+                .andExpect(status().isConflict());
     }
 
     @Test
@@ -98,6 +139,29 @@ public class AuthControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void testForgotPassword_existingUser() throws Exception {
+        SignUpForm signUpForm = new SignUpForm();
+
+        signUpForm.setEmail("forgot@test.com");
+        signUpForm.setPassword("test1234");
+        signUpForm.setFullName("test user");
+        signUpForm.setPhoneNumber("1234567890");
+        signUpForm.setAddress("test address");
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/sign-up")
+                .contentType("application/json")
+                .content(TestUtils.convertObjectToJsonBytes(signUpForm)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/forgot-password")
+                .contentType("application/json")
+                .content(TestUtils.convertObjectToJsonBytes(new ForgotPass("forgot@test.com"))))
+                .andExpect(status().isOk());
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+    }
+
     @Test
     public void testForgotPassword_invalidInput() throws Exception {
         ForgotPass forgotPass = new ForgotPass("@.");
@@ -139,4 +203,139 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.verificationCode").exists())
                 .andExpect(jsonPath("$.newPassword").exists());
     }
+
+    @Test
+    public void testSignupAsync_validInput() throws Exception {
+        SignUpForm signUpForm = new SignUpForm();
+
+        signUpForm.setEmail("signup-async@test.com");
+        signUpForm.setPassword("test1234");
+        signUpForm.setFullName("test user");
+        signUpForm.setPhoneNumber("1234567890");
+        signUpForm.setAddress("test address");
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/async/sign-up")
+                .contentType("application/json")
+                .content(TestUtils.convertObjectToJsonBytes(signUpForm)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    public void testLoginAsync_invalidInput() throws Exception {
+        LoginForm loginForm = new LoginForm();
+
+        loginForm.setEmail("@.");
+        loginForm.setPassword("");
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/async/sign-in")
+                .contentType("application/json")
+                .content(TestUtils.convertObjectToJsonBytes(loginForm)))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.email").exists())
+                .andExpect(jsonPath("$.password").exists());
+    }
+
+    @Test
+    public void testProfile_returnsSignedInUser() throws Exception {
+        SignUpForm signUpForm = new SignUpForm();
+
+        signUpForm.setEmail("profile@test.com");
+        signUpForm.setPassword("test1234");
+        signUpForm.setFullName("profile user");
+        signUpForm.setPhoneNumber("1234567890");
+        signUpForm.setAddress("test address");
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/sign-up")
+                .contentType("application/json")
+                .content(TestUtils.convertObjectToJsonBytes(signUpForm)))
+                .andExpect(status().isCreated());
+
+        Cookie jwtToken = mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/sign-in")
+                        .contentType("application/json")
+                        .content(TestUtils.convertObjectToJsonBytes(new LoginForm("profile@test.com", "test1234"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie("jwtToken");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/auth/profile").cookie(jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("profile@test.com"))
+                .andExpect(jsonPath("$.fullName").value("profile user"))
+                .andExpect(jsonPath("$.password").doesNotExist());
+    }
+
+    @Test
+    public void testSignOut_revokesToken() throws Exception {
+        SignUpForm signUpForm = new SignUpForm();
+
+        signUpForm.setEmail("signout@test.com");
+        signUpForm.setPassword("test1234");
+        signUpForm.setFullName("signout user");
+        signUpForm.setPhoneNumber("1234567890");
+        signUpForm.setAddress("test address");
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/sign-up")
+                .contentType("application/json")
+                .content(TestUtils.convertObjectToJsonBytes(signUpForm)))
+                .andExpect(status().isCreated());
+
+        Cookie jwtToken = mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/sign-in")
+                        .contentType("application/json")
+                        .content(TestUtils.convertObjectToJsonBytes(new LoginForm("signout@test.com", "test1234"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie("jwtToken");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/auth/sign-out").cookie(jwtToken))
+                .andExpect(status().isOk());
+
+        double revokedBefore = meterRegistry.get("auth.failures").tag("reason", "revoked_token").counter().count();
+
+        // a copy of the token kept by the client no longer authenticates
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/auth/profile").cookie(jwtToken))
+                .andExpect(status().isUnauthorized());
+
+        assertEquals(revokedBefore + 1, meterRegistry.get("auth.failures").tag("reason", "revoked_token").counter().count());
+    }
+
+    @Test
+    public void testRefresh_rotatesAndDetectsReuse() throws Exception {
+        SignUpForm signUpForm = new SignUpForm();
+
+        signUpForm.setEmail("refresh@test.com");
+        signUpForm.setPassword("test1234");
+        signUpForm.setFullName("refresh user");
+        signUpForm.setPhoneNumber("1234567890");
+        signUpForm.setAddress("test address");
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/sign-up")
+                .contentType("application/json")
+                .content(TestUtils.convertObjectToJsonBytes(signUpForm)))
+                .andExpect(status().isCreated());
+
+        Cookie firstRefreshToken = mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/sign-in")
+                        .contentType("application/json")
+                        .content(TestUtils.convertObjectToJsonBytes(new LoginForm("refresh@test.com", "test1234"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie("refreshToken");
+
+        MockHttpServletResponse refreshed = mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/refresh").cookie(firstRefreshToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        Cookie secondRefreshToken = refreshed.getCookie("refreshToken");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/auth/profile").cookie(refreshed.getCookie("jwtToken")))
+                .andExpect(status().isOk());
+
+        // replaying the first token revokes the whole family, including the token that replaced it
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/refresh").cookie(firstRefreshToken))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/refresh").cookie(secondRefreshToken))
+                .andExpect(status().isUnauthorized());
+    }
 }
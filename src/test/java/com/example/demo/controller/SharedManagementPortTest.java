@@ -0,0 +1,74 @@
+package com.example.demo.controller;
+
+import com.example.demo.enums.Role;
+import com.example.demo.forms.LoginForm;
+import com.example.demo.forms.SignUpForm;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepo;
+import com.example.demo.util.TestUtils;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// with management.server.port unset, actuator shares the application port and metrics fall back to admins only
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@SpringBootTest(properties = "management.server.port=")
+@ActiveProfiles("test")
+public class SharedManagementPortTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Test
+    public void testMetrics_requireAdmin() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus").cookie(signIn("metrics-user@test.com")))
+                .andExpect(status().isForbidden());
+
+        signIn("metrics-admin@test.com");
+        User admin = userRepo.findByEmail("metrics-admin@test.com").orElseThrow();
+        admin.setRole(Role.ADMIN);
+        userRepo.save(admin);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus").cookie(signIn("metrics-admin@test.com")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testHealth_isPublic() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    private Cookie signIn(String email) throws Exception {
+        SignUpForm signUpForm = new SignUpForm();
+
+        signUpForm.setEmail(email);
+        signUpForm.setPassword("test1234");
+        signUpForm.setFullName("test user");
+        signUpForm.setPhoneNumber("1234567890");
+        signUpForm.setAddress("test address");
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/sign-up")
+                .contentType("application/json")
+                .content(TestUtils.convertObjectToJsonBytes(signUpForm)));
+
+        return mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/sign-in")
+                        .contentType("application/json")
+                        .content(TestUtils.convertObjectToJsonBytes(new LoginForm(email, "test1234"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie("jwtToken");
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class UserRepoTest {
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testFindByEmail_servedFromSecondLevelCache() {
+        User user = userRepo.save(User.builder()
+                .fullName("l2 user")
+                .email("l2@test.com")
+                .password("encoded-password")
+                .phoneNumber("1234567890")
+                .address("test address")
+                .build());
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertTrue(userRepo.findByEmail("l2@test.com").isPresent());
+        assertTrue(userRepo.findByEmail("l2@test.com").isPresent());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        user.setEmail("l2-renamed@test.com");
+        userRepo.save(user);
+
+        assertTrue(userRepo.findByEmail("l2@test.com").isEmpty());
+        assertEquals("l2 user", userRepo.findByEmail("l2-renamed@test.com").orElseThrow().getFullName());
+    }
+
+    @Test
+    public void testFindByEmail_ignoresCaseAndSurroundingSpaces() {
+        userRepo.save(User.builder()
+                .fullName("mixed case")
+                .email("Mixed.Case@Test.com")
+                .password("encoded-password")
+                .phoneNumber("1234567890")
+                .address("test address")
+                .build());
+
+        assertEquals("Mixed.Case@Test.com", userRepo.findByEmail(" mixed.case@test.COM ").orElseThrow().getEmail());
+        assertTrue(userRepo.existsByEmail("MIXED.CASE@TEST.COM"));
+        assertTrue(userRepo.findProfileVersionByEmail(User.normalizeEmail("MIXED.CASE@TEST.COM")).isPresent());
+    }
+
+    @Test
+    public void testExistsByEmail_resolvesIdWithoutLoadingUser() {
+        userRepo.save(User.builder()
+                .fullName("exists user")
+                .email("exists@test.com")
+                .password("encoded-password")
+                .phoneNumber("1234567890")
+                .address("test address")
+                .build());
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertTrue(userRepo.existsByEmail("exists@test.com"));
+        assertFalse(userRepo.existsByEmail("missing@test.com"));
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
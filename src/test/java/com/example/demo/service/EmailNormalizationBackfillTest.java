@@ -0,0 +1,43 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.UserRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class EmailNormalizationBackfillTest {
+    private static final String INSERT_LEGACY_USER =
+            "insert into users (id, full_name, email, password, phone_number, address, profile_version) values (?, 'legacy user', ?, 'encoded-password', '1234567890', 'test address', 0)";
+
+    @Autowired
+    private EmailNormalizationBackfill backfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Test
+    public void testBackfill_normalizesInBatchesAndSkipsConflicts() {
+        jdbcTemplate.update(INSERT_LEGACY_USER, "backfill-1", " Backfill.One@Test.com");
+        jdbcTemplate.update(INSERT_LEGACY_USER, "backfill-2", "backfill.two@test.com");
+        jdbcTemplate.update(INSERT_LEGACY_USER, "backfill-3", "BACKFILL.TWO@test.com");
+        assertTrue(userRepo.findByEmail("backfill.one@test.com").isEmpty());
+
+        ReflectionTestUtils.setField(backfill, "batchSize", 2);
+        assertEquals(2, backfill.backfill());
+
+        assertEquals("backfill-1", userRepo.findByEmail("BACKFILL.ONE@test.com").orElseThrow().getId());
+        assertEquals("backfill-2", userRepo.findByEmail("Backfill.Two@test.com").orElseThrow().getId());
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from users where email_normalized is null", Integer.class));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.service;
+
+import com.example.demo.enums.BulkFormat;
+import com.example.demo.repository.UserRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class UserBulkServiceTest {
+    @Autowired
+    private UserBulkService userBulkService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Test
+    public void testImport_reportsRowsTheDatabaseRefusesAfterCommittedBatch() throws Exception {
+        ReflectionTestUtils.setField(userBulkService, "batchSize", 2);
+        // a valid address, but longer than the email column
+        String tooLong = "l".repeat(64) + "@" + ("d".repeat(60) + ".").repeat(4) + "com";
+
+        String rows = row("committed1@test.com") + row("committed2@test.com") + row("retried@test.com") + row(tooLong);
+        UserBulkService.ImportReport report = userBulkService.importUsers(
+                new ByteArrayInputStream(rows.getBytes(StandardCharsets.UTF_8)), BulkFormat.NDJSON);
+
+        assertEquals(3, report.imported());
+        assertEquals(1, report.failed());
+        assertEquals(4, report.errors().get(0).line());
+        assertEquals("Rejected by the database", report.errors().get(0).message());
+        assertTrue(userRepo.existsByEmail("committed1@test.com"));
+        assertTrue(userRepo.existsByEmail("retried@test.com"));
+    }
+
+    @Test
+    public void testImport_rejectsRowWhosePasswordCannotBeHashed() throws Exception {
+        PasswordEncoder passwordEncoder = (PasswordEncoder) ReflectionTestUtils.getField(userBulkService, "passwordEncoder");
+        PasswordEncoder failing = mock(PasswordEncoder.class);
+        when(failing.encode(any())).thenAnswer(invocation -> {
+            if ("broken12".contentEquals((CharSequence) invocation.getArgument(0))) {
+                throw new IllegalStateException("encoder failure");
+            }
+            return "hash";
+        });
+        ReflectionTestUtils.setField(userBulkService, "passwordEncoder", failing);
+        try {
+            String rows = row("hashed@test.com", "test1234") + row("unhashed@test.com", "broken12");
+            UserBulkService.ImportReport report = userBulkService.importUsers(
+                    new ByteArrayInputStream(rows.getBytes(StandardCharsets.UTF_8)), BulkFormat.NDJSON);
+
+            assertEquals(1, report.imported());
+            assertEquals(1, report.failed());
+            assertEquals(2, report.errors().get(0).line());
+            assertEquals("Password could not be hashed", report.errors().get(0).message());
+            assertTrue(userRepo.existsByEmail("hashed@test.com"));
+            assertFalse(userRepo.existsByEmail("unhashed@test.com"));
+        } finally {
+            ReflectionTestUtils.setField(userBulkService, "passwordEncoder", passwordEncoder);
+        }
+    }
+
+    private static String row(String email) {
+        return row(email, "test1234");
+    }
+
+    private static String row(String email, String password) {
+        return "{\"fullName\":\"bulk user\",\"email\":\"" + email
+                + "\",\"password\":\"" + password + "\",\"phoneNumber\":\"1234567890\",\"address\":\"test address\"}\n";
+    }
+}
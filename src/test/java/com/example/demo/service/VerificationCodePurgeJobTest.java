@@ -0,0 +1,58 @@
+package com.example.demo.service;
+
+import com.example.demo.enums.CodeType;
+import com.example.demo.model.User;
+import com.example.demo.model.VerificationCode;
+import com.example.demo.repository.UserRepo;
+import com.example.demo.repository.VerificationCodeRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class VerificationCodePurgeJobTest {
+    @Autowired
+    private VerificationCodePurgeJob purgeJob;
+
+    @Autowired
+    private VerificationCodeStore verificationCodeStore;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private VerificationCodeRepo verificationCodeRepo;
+
+    @Test
+    public void testPurge_removesOnlyExpiredCodesInBatches() {
+        User user = userRepo.save(User.builder()
+                .fullName("purge user")
+                .email("purge@test.com")
+                .password("unused1234")
+                .phoneNumber("1234567890")
+                .address("test address")
+                .build());
+
+        for (int i = 0; i < 5; i++) {
+            verificationCodeStore.save(user, "OLD00" + i, CodeType.RESET_PASSWORD, Instant.now().minus(Duration.ofMinutes(1)));
+        }
+        // left over from before codes had an expiry
+        verificationCodeRepo.save(VerificationCode.builder().user(user).code("LEGACY").type(CodeType.RESET_PASSWORD).build());
+        verificationCodeStore.save(user, "VALID1", CodeType.RESET_PASSWORD, Instant.now().plus(Duration.ofMinutes(15)));
+
+        ReflectionTestUtils.setField(purgeJob, "batchSize", 2);
+        purgeJob.purge();
+
+        assertEquals(1, verificationCodeRepo.findAll().stream().filter(code -> code.getUser().getId().equals(user.getId())).count());
+        assertTrue(verificationCodeStore.findValid("purge@test.com", "VALID1", CodeType.RESET_PASSWORD).isPresent());
+    }
+}
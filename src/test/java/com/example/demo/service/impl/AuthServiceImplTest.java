@@ -0,0 +1,195 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.enums.CodeType;
+import com.example.demo.exception.AccountLockedException;
+import com.example.demo.exception.RateLimitExceededException;
+import com.example.demo.forms.ForgotPass;
+import com.example.demo.forms.LoginForm;
+import com.example.demo.forms.ResetPasswordForm;
+import com.example.demo.model.User;
+import com.example.demo.model.VerificationCode;
+import com.example.demo.repository.UserRepo;
+import com.example.demo.repository.VerificationCodeRepo;
+import com.example.demo.service.AuthService;
+import com.example.demo.service.RefreshTokenService;
+import com.example.demo.service.VerificationCodeStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class AuthServiceImplTest {
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private VerificationCodeRepo verificationCodeRepo;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private VerificationCodeStore verificationCodeStore;
+
+    private User saveUser(String email, String rawPassword) {
+        return userRepo.save(User.builder()
+                .fullName("test user")
+                .email(email)
+                .password(new BCryptPasswordEncoder(4).encode(rawPassword))
+                .phoneNumber("1234567890")
+                .address("test address")
+                .build());
+    }
+
+    private void saveResetCode(User user, String code, Instant expiresAt) {
+        verificationCodeRepo.save(VerificationCode.builder()
+                .user(user)
+                .code(code)
+                .type(CodeType.RESET_PASSWORD)
+                .createdAt(Instant.now())
+                .expiresAt(expiresAt)
+                .build());
+    }
+
+    @Test
+    public void testLogin_rehashesLegacyPassword() {
+        // stored before hashes carried an {id} prefix, with a lower cost than the configured one
+        userRepo.save(User.builder()
+                .fullName("legacy user")
+                .email("legacy@test.com")
+                .password(new BCryptPasswordEncoder(4).encode("test1234"))
+                .phoneNumber("1234567890")
+                .address("test address")
+                .build());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertEquals(HttpStatus.OK, authService.loginUser(new LoginForm("legacy@test.com", "test1234"), response).getStatusCode());
+
+        String storedPassword = userRepo.findByEmail("legacy@test.com").get().getPassword();
+        assertTrue(storedPassword.startsWith("{bcrypt}$2a$10$"));
+        assertEquals(HttpStatus.OK, authService.loginUser(new LoginForm("legacy@test.com", "test1234"), response).getStatusCode());
+    }
+
+    @Test
+    public void testResetPassword_acceptsAnyValidCodeAndRejectsExpired() {
+        User user = saveUser("reset@test.com", "test1234");
+        saveResetCode(user, "OLD123", Instant.now().minus(Duration.ofMinutes(1)));
+        saveResetCode(user, "NEW123", Instant.now().plus(Duration.ofMinutes(15)));
+        saveResetCode(user, "NEW456", Instant.now().plus(Duration.ofMinutes(15)));
+
+        assertEquals(HttpStatus.NOT_FOUND, authService.resetPassword(new ResetPasswordForm("reset@test.com", "OLD123", "changed1234")).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, authService.resetPassword(new ResetPasswordForm("reset@test.com", "new123", "changed1234")).getStatusCode());
+        assertEquals(HttpStatus.OK, authService.resetPassword(new ResetPasswordForm("reset@test.com", "NEW123", "changed1234")).getStatusCode());
+
+        // sessions started with the old password are cut off
+        assertTrue(userRepo.findByEmail("reset@test.com").orElseThrow().getTokensValidAfter() != null);
+
+        // every reset code of the user is used up by a successful reset
+        assertEquals(HttpStatus.NOT_FOUND, authService.resetPassword(new ResetPasswordForm("reset@test.com", "NEW456", "again12345")).getStatusCode());
+        assertEquals(HttpStatus.OK, authService.loginUser(new LoginForm("reset@test.com", "changed1234"), new MockHttpServletResponse()).getStatusCode());
+    }
+
+    @Test
+    public void testResetPassword_consumesCodeOnlyOnce() {
+        User user = saveUser("consume@test.com", "test1234");
+        saveResetCode(user, "ONCE12", Instant.now().plus(Duration.ofMinutes(15)));
+        saveResetCode(user, "LATE12", Instant.now().minus(Duration.ofMinutes(1)));
+
+        // what a second reset racing on the same code sees once the first has taken it
+        assertTrue(verificationCodeStore.consume(user, "ONCE12", CodeType.RESET_PASSWORD));
+        assertFalse(verificationCodeStore.consume(user, "ONCE12", CodeType.RESET_PASSWORD));
+        assertFalse(verificationCodeStore.consume(user, "LATE12", CodeType.RESET_PASSWORD));
+
+        InMemoryVerificationCodeStore memoryStore = new InMemoryVerificationCodeStore();
+        memoryStore.save(user, "MEM123", CodeType.RESET_PASSWORD, Instant.now().plus(Duration.ofMinutes(15)));
+        assertTrue(memoryStore.consume(user, "MEM123", CodeType.RESET_PASSWORD));
+        assertFalse(memoryStore.consume(user, "MEM123", CodeType.RESET_PASSWORD));
+    }
+
+    @Test
+    public void testResetPassword_matchesEmailInAnyCase() {
+        User user = saveUser("Mixed.Reset@test.com", "test1234");
+
+        assertEquals(HttpStatus.OK, authService.forgotPassword(new ForgotPass("MIXED.RESET@test.com")).getStatusCode());
+        String code = verificationCodeRepo.findAll().stream()
+                .filter(v -> v.getUser().getId().equals(user.getId()))
+                .findFirst().orElseThrow().getCode();
+        assertEquals(HttpStatus.OK, authService.resetPassword(new ResetPasswordForm("mixed.reset@test.com", code, "changed1234")).getStatusCode());
+
+        InMemoryVerificationCodeStore memoryStore = new InMemoryVerificationCodeStore();
+        ReflectionTestUtils.setField(memoryStore, "userRepo", userRepo);
+        memoryStore.save(user, "MEM123", CodeType.RESET_PASSWORD, Instant.now().plus(Duration.ofMinutes(15)));
+        assertTrue(memoryStore.findValid(" mixed.reset@TEST.com", "MEM123", CodeType.RESET_PASSWORD).isPresent());
+        memoryStore.invalidateAll(user, CodeType.RESET_PASSWORD);
+        assertTrue(memoryStore.findValid("mixed.reset@test.com", "MEM123", CodeType.RESET_PASSWORD).isEmpty());
+    }
+
+    @Test
+    public void testForgotPassword_limitsRequestsPerAccount() {
+        // the default account budget is 10 requests; casing does not give an attacker a fresh bucket
+        for (int i = 0; i < 10; i++) {
+            String email = i % 2 == 0 ? "limited@test.com" : "LIMITED@test.com";
+            assertEquals(HttpStatus.NOT_FOUND, authService.forgotPassword(new ForgotPass(email)).getStatusCode());
+        }
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> authService.forgotPassword(new ForgotPass("limited@test.com")));
+        assertTrue(e.getRetryAfterSeconds() > 0);
+    }
+
+    @Test
+    public void testLogin_locksAccountAfterRepeatedFailures() {
+        saveUser("locked@test.com", "password1234");
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(HttpStatus.BAD_REQUEST, authService.loginUser(new LoginForm("locked@test.com", "wrong-password"), new MockHttpServletResponse()).getStatusCode());
+        }
+
+        // even the right password is refused while the lock holds
+        assertThrows(AccountLockedException.class,
+                () -> authService.loginUser(new LoginForm("locked@test.com", "password1234"), new MockHttpServletResponse()));
+        assertFalse(userRepo.findByEmail("locked@test.com").orElseThrow().isAccountNonLocked());
+    }
+
+    @Test
+    public void testRefresh_refusedWhileAccountIsLocked() {
+        User user = saveUser("locked-refresh@test.com", "password1234");
+        String refreshToken = refreshTokenService.issue(user);
+
+        for (int i = 0; i < 5; i++) {
+            authService.loginUser(new LoginForm("locked-refresh@test.com", "wrong-password"), new MockHttpServletResponse());
+        }
+
+        assertThrows(AccountLockedException.class, () -> refreshTokenService.rotate(refreshToken));
+    }
+
+    @Test
+    public void testResetPassword_locksCodeEntryAfterRepeatedFailures() {
+        User user = saveUser("guess@test.com", "password1234");
+        saveResetCode(user, "ABC123", Instant.now().plus(Duration.ofMinutes(15)));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(HttpStatus.NOT_FOUND, authService.resetPassword(new ResetPasswordForm("guess@test.com", "WRONG" + i, "changed1234")).getStatusCode());
+        }
+
+        assertThrows(AccountLockedException.class,
+                () -> authService.resetPassword(new ResetPasswordForm("guess@test.com", "ABC123", "changed1234")));
+    }
+}
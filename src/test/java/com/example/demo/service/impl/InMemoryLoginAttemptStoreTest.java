@@ -0,0 +1,50 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.service.LockoutPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InMemoryLoginAttemptStoreTest {
+    private final LockoutPolicy policy = new LockoutPolicy(3, Duration.ofMinutes(15), Duration.ofMinutes(1), Duration.ofMinutes(5));
+
+    private InMemoryLoginAttemptStore store;
+
+    @BeforeEach
+    public void setUp() {
+        store = new InMemoryLoginAttemptStore();
+        ReflectionTestUtils.setField(store, "maxTrackedKeys", 1000L);
+        ReflectionTestUtils.setField(store, "maxLockout", Duration.ofMinutes(5));
+        ReflectionTestUtils.invokeMethod(store, "init");
+    }
+
+    @Test
+    public void testRecordFailure_locksOnThresholdAndResetClears() {
+        assertTrue(store.recordFailure("LOGIN:a@test.com", policy).isEmpty());
+        assertTrue(store.recordFailure("LOGIN:a@test.com", policy).isEmpty());
+        Optional<Instant> lockedUntil = store.recordFailure("LOGIN:a@test.com", policy);
+
+        assertTrue(lockedUntil.isPresent());
+        assertEquals(lockedUntil, store.lockedUntil("LOGIN:a@test.com"));
+        assertTrue(store.lockedUntil("RESET_CODE:a@test.com").isEmpty());
+
+        store.reset("LOGIN:a@test.com");
+        assertTrue(store.lockedUntil("LOGIN:a@test.com").isEmpty());
+    }
+
+    @Test
+    public void testLockoutFor_doublesUpToTheCap() {
+        assertEquals(Duration.ofMinutes(1), policy.lockoutFor(1));
+        assertEquals(Duration.ofMinutes(2), policy.lockoutFor(2));
+        assertEquals(Duration.ofMinutes(4), policy.lockoutFor(3));
+        assertEquals(Duration.ofMinutes(5), policy.lockoutFor(4));
+        assertEquals(Duration.ofMinutes(5), policy.lockoutFor(64));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.enums.CodeType;
+import com.example.demo.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class InMemoryVerificationCodeStoreTest {
+    private final InMemoryVerificationCodeStore store = new InMemoryVerificationCodeStore();
+
+    @Test
+    public void testPurgeExpired_countsEveryExpiredCodeBeforeReturning() throws InterruptedException {
+        User expired = User.builder().email("expired@test.com").build();
+        User current = User.builder().email("current@test.com").build();
+        Instant soon = Instant.now().plus(Duration.ofMillis(300));
+        store.save(expired, "OLD001", CodeType.RESET_PASSWORD, soon);
+        store.save(expired, "OLD002", CodeType.RESET_PASSWORD, soon);
+        store.save(current, "VALID1", CodeType.RESET_PASSWORD, Instant.now().plus(Duration.ofMinutes(15)));
+
+        // the timer wheel sweeps in buckets of about a second, so wait for the bucket holding the expiry to pass
+        Thread.sleep(2000);
+
+        // with the common pool busy, a listener handed to it could not have run by the time purgeExpired returns
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < ForkJoinPool.getCommonPoolParallelism(); i++) {
+            ForkJoinPool.commonPool().execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        try {
+            assertEquals(2, store.purgeExpired(100));
+            assertEquals(0, store.purgeExpired(100));
+            assertEquals(1, store.size());
+        } finally {
+            release.countDown();
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BloomFilterTest {
+
+    @Test
+    public void testMightContain_noFalseNegativesAndFewFalsePositives() {
+        BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+        String[] added = new String[10_000];
+        for (int i = 0; i < added.length; i++) {
+            added[i] = UUID.randomUUID().toString();
+            bloomFilter.add(added[i]);
+        }
+
+        for (String value : added) {
+            assertTrue(bloomFilter.mightContain(value));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (bloomFilter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        // 1% expected; allow for randomness
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.util;
+
+import com.example.demo.cache.VerifiedTokenCache;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JwtKeyRingTest {
+    private static final String PASSWORD = "changeit";
+
+    @TempDir
+    Path tempDir;
+
+    // keytool is the documented way to produce the keystore, so the test uses it too
+    private static void keytool(String... args) throws Exception {
+        String[] command = new String[args.length + 1];
+        command[0] = Path.of(System.getProperty("java.home"), "bin", "keytool").toString();
+        System.arraycopy(args, 0, command, 1, args.length);
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes());
+        assertEquals(0, process.waitFor(), output);
+    }
+
+    private static void generateKey(Path keystore, String alias) throws Exception {
+        keytool("-genkeypair", "-alias", alias, "-keyalg", "EC", "-groupname", "secp256r1", "-sigalg", "SHA256withECDSA",
+                "-dname", "CN=" + alias, "-validity", "1", "-storetype", "PKCS12",
+                "-keystore", keystore.toString(), "-storepass", PASSWORD);
+    }
+
+    private static JwtUtil jwtUtil(Path keystore, String signingAlias) {
+        JwtKeyRing jwtKeyRing = new JwtKeyRing();
+        ReflectionTestUtils.setField(jwtKeyRing, "verifiedTokenCache", new VerifiedTokenCache());
+        ReflectionTestUtils.setField(jwtKeyRing, "algorithm", SignatureAlgorithm.ES256);
+        ReflectionTestUtils.setField(jwtKeyRing, "keystorePath", keystore.toString());
+        ReflectionTestUtils.setField(jwtKeyRing, "keystorePassword", PASSWORD);
+        ReflectionTestUtils.setField(jwtKeyRing, "signingAlias", signingAlias);
+        ReflectionTestUtils.invokeMethod(jwtKeyRing, "init");
+
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtKeyRing", jwtKeyRing);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedTokenCache", new VerifiedTokenCache());
+        ReflectionTestUtils.setField(jwtUtil, "authMetrics", TestUtils.authMetrics());
+        return jwtUtil;
+    }
+
+    @Test
+    public void testRotation_newKeySignsAndOldTokensStillVerify() throws Exception {
+        Path keystore = tempDir.resolve("jwt.p12");
+        generateKey(keystore, "2026-09");
+        JwtUtil jwtUtil = jwtUtil(keystore, "2026-09");
+
+        String oldToken = jwtUtil.generateToken("ring@test.com");
+        assertEquals("2026-09", headerKid(oldToken));
+
+        // add a key and make it the signing key; the file is picked up without a restart
+        generateKey(keystore, "2026-10");
+        Files.setLastModifiedTime(keystore, FileTime.from(Instant.now().plusSeconds(5)));
+        JwtKeyRing jwtKeyRing = (JwtKeyRing) ReflectionTestUtils.getField(jwtUtil, "jwtKeyRing");
+        ReflectionTestUtils.setField(jwtKeyRing, "signingAlias", "2026-10");
+        jwtKeyRing.reloadIfChanged();
+
+        String newToken = jwtUtil.generateToken("ring@test.com");
+        assertEquals("2026-10", headerKid(newToken));
+        assertEquals("ring@test.com", jwtUtil.check(oldToken).claims().subject());
+        assertEquals("ring@test.com", jwtUtil.check(newToken).claims().subject());
+    }
+
+    @Test
+    public void testVerifyOnlyNode_verifiesButCannotSign() throws Exception {
+        Path signerStore = tempDir.resolve("signer.p12");
+        generateKey(signerStore, "2026-10");
+        Path certificate = tempDir.resolve("2026-10.cer");
+        keytool("-exportcert", "-alias", "2026-10", "-keystore", signerStore.toString(), "-storepass", PASSWORD,
+                "-file", certificate.toString());
+        Path edgeStore = tempDir.resolve("edge.p12");
+        keytool("-importcert", "-noprompt", "-alias", "2026-10", "-file", certificate.toString(), "-storetype", "PKCS12",
+                "-keystore", edgeStore.toString(), "-storepass", PASSWORD);
+
+        String token = jwtUtil(signerStore, "2026-10").generateToken("edge@test.com");
+        JwtUtil edge = jwtUtil(edgeStore, "");
+
+        assertEquals("edge@test.com", edge.check(token).claims().subject());
+        assertThrows(IllegalStateException.class, () -> edge.generateToken("edge@test.com"));
+    }
+
+    @Test
+    public void testLegacyHs256_refusedUnlessEnabled() throws Exception {
+        Path keystore = tempDir.resolve("jwt.p12");
+        generateKey(keystore, "2026-10");
+        JwtUtil jwtUtil = jwtUtil(keystore, "2026-10");
+        String legacyToken = Jwts.builder()
+                .setSubject("legacy@test.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(JwtUtil.SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertFalse(jwtUtil.check(legacyToken).isValid());
+
+        JwtUtil switchingOver = jwtUtil(keystore, "2026-10");
+        ReflectionTestUtils.setField(ReflectionTestUtils.getField(switchingOver, "jwtKeyRing"), "acceptLegacyHs256", true);
+        assertEquals("legacy@test.com", switchingOver.check(legacyToken).claims().subject());
+    }
+
+    private static String headerKid(String token) {
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        return header.replaceAll(".*\"kid\":\"([^\"]+)\".*", "$1");
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.util;
+
+import com.example.demo.model.MailDeadLetter;
+import com.example.demo.repository.MailDeadLetterRepo;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class MailDispatcherTest {
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final MailDeadLetterRepo mailDeadLetterRepo = mock(MailDeadLetterRepo.class);
+
+    private MailDispatcher dispatcher(int smtpPort) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpPort);
+
+        MailDispatcher dispatcher = new MailDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "mailSender", mailSender);
+        ReflectionTestUtils.setField(dispatcher, "mailDeadLetterRepo", mailDeadLetterRepo);
+        ReflectionTestUtils.setField(dispatcher, "authMetrics", TestUtils.authMetrics());
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 2);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", Duration.ofMillis(10));
+        return dispatcher;
+    }
+
+    private static SimpleMailMessage message(String to) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom("noreply@test.com");
+        message.setTo(to);
+        message.setSubject("Email verification code");
+        message.setText("Your verification code is: ABC123");
+        return message;
+    }
+
+    @Test
+    public void testDeliver_sendsBatchToSmtpServer() throws Exception {
+        MailDispatcher dispatcher = dispatcher(ServerSetupTest.SMTP.getPort());
+
+        List<SimpleMailMessage> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            batch.add(message("user" + i + "@test.com"));
+        }
+
+        assertTrue(dispatcher.deliver(batch).isEmpty());
+        assertTrue(greenMail.waitForIncomingEmail(5000, 5));
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(5, received.length);
+        assertEquals("Email verification code", received[0].getSubject());
+        verify(mailDeadLetterRepo, never()).save(any());
+    }
+
+    @Test
+    public void testDeliver_deadLettersAfterRetries() throws Exception {
+        // nothing listens on this port
+        MailDispatcher dispatcher = dispatcher(ServerSetupTest.SMTP.getPort() + 100);
+
+        List<SimpleMailMessage> undelivered = dispatcher.deliver(List.of(message("a@test.com"), message("b@test.com")));
+
+        assertEquals(2, undelivered.size());
+        verify(mailDeadLetterRepo, times(2)).save(any(MailDeadLetter.class));
+    }
+}
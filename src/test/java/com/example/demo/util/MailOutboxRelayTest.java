@@ -0,0 +1,90 @@
+package com.example.demo.util;
+
+import com.example.demo.enums.OutboxStatus;
+import com.example.demo.model.MailDeadLetter;
+import com.example.demo.model.MailOutbox;
+import com.example.demo.repository.MailDeadLetterRepo;
+import com.example.demo.repository.MailOutboxRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class MailOutboxRelayTest {
+    @Autowired
+    private MailOutboxRelay mailOutboxRelay;
+
+    @Autowired
+    private MailOutboxRepo mailOutboxRepo;
+
+    @Autowired
+    private MailDeadLetterRepo mailDeadLetterRepo;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private MailOutbox saveMail(OutboxStatus status, Instant createdAt) {
+        return mailOutboxRepo.save(MailOutbox.builder()
+                .recipient("outbox@test.com")
+                .subject("Email verification code")
+                .body("Your verification code is: ABC123")
+                .status(status)
+                .createdAt(createdAt)
+                .build());
+    }
+
+    @Test
+    public void testSettledMails_dropCodeWhenSettledAndArePurgedAfterRetention() {
+        Instant old = Instant.now().minus(Duration.ofDays(8));
+        MailOutbox justSent = saveMail(OutboxStatus.SENDING, Instant.now());
+        MailOutbox justFailed = saveMail(OutboxStatus.SENDING, Instant.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            mailOutboxRepo.markSent(List.of(justSent.getId()), Instant.now());
+            mailOutboxRepo.markFailed(List.of(justFailed.getId()));
+        });
+        assertNull(mailOutboxRepo.findById(justSent.getId()).orElseThrow().getBody());
+        assertNull(mailOutboxRepo.findById(justFailed.getId()).orElseThrow().getBody());
+
+        MailDeadLetter oldDeadLetter = saveDeadLetter(old);
+        MailDeadLetter recentDeadLetter = saveDeadLetter(Instant.now());
+
+        for (int i = 0; i < 3; i++) {
+            saveMail(OutboxStatus.SENT, old);
+        }
+        saveMail(OutboxStatus.FAILED, old);
+        // still in flight, under a lease the background relay will not take over during the test
+        MailOutbox inFlight = saveMail(OutboxStatus.SENDING, old);
+        inFlight.setClaimedAt(Instant.now());
+        mailOutboxRepo.save(inFlight);
+
+        ReflectionTestUtils.setField(mailOutboxRelay, "purgeBatchSize", 2);
+        assertEquals(5, mailOutboxRelay.purgeSettled());
+
+        assertTrue(mailOutboxRepo.existsById(justSent.getId()));
+        assertTrue(mailOutboxRepo.existsById(inFlight.getId()));
+        assertFalse(mailDeadLetterRepo.existsById(oldDeadLetter.getId()));
+        assertTrue(mailDeadLetterRepo.existsById(recentDeadLetter.getId()));
+    }
+
+    private MailDeadLetter saveDeadLetter(Instant failedAt) {
+        return mailDeadLetterRepo.save(MailDeadLetter.builder()
+                .recipient("outbox@test.com")
+                .subject("Email verification code")
+                .attempts(4)
+                .failedAt(failedAt)
+                .build());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.util;
+
+import com.example.demo.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PasswordHasherTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PasswordHasher passwordHasher;
+
+    private PasswordHasher passwordHasher(Duration admissionTimeout) throws InterruptedException {
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+
+        passwordHasher = new PasswordHasher();
+        ReflectionTestUtils.setField(passwordHasher, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(passwordHasher, "authMetrics", TestUtils.authMetrics());
+        ReflectionTestUtils.setField(passwordHasher, "threads", 1);
+        ReflectionTestUtils.setField(passwordHasher, "queueCapacity", 1);
+        ReflectionTestUtils.setField(passwordHasher, "admissionTimeout", admissionTimeout);
+        ReflectionTestUtils.invokeMethod(passwordHasher, "init");
+        return passwordHasher;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        ReflectionTestUtils.invokeMethod(passwordHasher, "shutdown");
+    }
+
+    @Test
+    public void testEncodeAsync_failsFastWhenFull() throws InterruptedException {
+        PasswordHasher hasher = passwordHasher(Duration.ZERO);
+        hasher.encodeAsync("running");
+        hasher.encodeAsync("queued");
+
+        assertThrows(ServiceBusyException.class, () -> hasher.encodeAsync("rejected"));
+    }
+
+    @Test
+    public void testEncodeAsync_waitsForAdmissionWithinTimeout() throws Exception {
+        PasswordHasher hasher = passwordHasher(Duration.ofSeconds(5));
+        hasher.encodeAsync("running");
+        hasher.encodeAsync("queued");
+
+        CompletableFuture<String> waiting = CompletableFuture.supplyAsync(() -> hasher.encode("waiting"));
+        release.countDown();
+
+        assertEquals("hash", waiting.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimiterTest {
+
+    @Test
+    public void testTryAcquire_admitsBurstThenReportsWait() {
+        RateLimiter rateLimiter = new RateLimiter(3, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("10.0.0.1"));
+        }
+        long waitNanos = rateLimiter.tryAcquire("10.0.0.1");
+        assertTrue(waitNanos > Duration.ofSeconds(59).toNanos() && waitNanos <= Duration.ofMinutes(1).toNanos());
+
+        // buckets are independent per key
+        assertEquals(0, rateLimiter.tryAcquire("10.0.0.2"));
+    }
+
+    @Test
+    public void testEvictIdle_dropsOnlyRefilledBuckets() throws InterruptedException {
+        RateLimiter rateLimiter = new RateLimiter(2, Duration.ofMillis(20));
+        rateLimiter.tryAcquire("idle");
+        Thread.sleep(50);
+        rateLimiter.tryAcquire("busy");
+
+        assertEquals(1, rateLimiter.evictIdle());
+        assertEquals(1, rateLimiter.size());
+    }
+}
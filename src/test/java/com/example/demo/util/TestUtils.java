@@ -1,6 +1,8 @@
 package com.example.demo.util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
 
@@ -10,4 +12,11 @@ public class TestUtils {
     public static byte[] convertObjectToJsonBytes(Object object) throws IOException {
         return objectMapper.writeValueAsBytes(object);
     }
+
+    public static AuthMetrics authMetrics() {
+        AuthMetrics authMetrics = new AuthMetrics();
+        ReflectionTestUtils.setField(authMetrics, "meterRegistry", new SimpleMeterRegistry());
+        authMetrics.init();
+        return authMetrics;
+    }
 }